@@ -0,0 +1,141 @@
+package com.ipfaffen.ovenbird.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ipfaffen.ovenbird.model.criteria.Criteria;
+import com.ipfaffen.ovenbird.model.criteria.Criteria.Filter;
+import com.ipfaffen.ovenbird.model.dialect.SqlDialect;
+import com.ipfaffen.ovenbird.model.exception.ConnectionException;
+import com.ipfaffen.ovenbird.model.exception.ModelException;
+import com.ipfaffen.ovenbird.model.mapper.RowHandler;
+import com.ipfaffen.ovenbird.model.mapper.RowMapper;
+import com.ipfaffen.ovenbird.model.mapper.RowMapperFactory;
+import com.ipfaffen.ovenbird.model.metadata.EntityMetadata;
+import com.ipfaffen.ovenbird.model.util.ColumnField;
+import com.ipfaffen.ovenbird.model.util.FieldList;
+
+/**
+ * Id only references of one entity type created by a query with lazy fetch (see Criteria.enableLazyFetch).<br>
+ * When one of them is accessed it is loaded with the other pending references (up to ModelConstants.LAZY_BATCH_SIZE)
+ * in a single IN query, and the values are copied into the reference instances (columns changed in an unresolved
+ * reference keep the changed value and stay dirty).<br>
+ * The references may be shared by other threads, so the batch is synchronized on itself.
+ *
+ * @author Isaias Pfaffenseller
+ */
+final class LazyBatch {
+
+	private final ModelHelper helper;
+	private final SqlDialect dialect;
+	private final Class<?> entityClass;
+	private final EntityMetadata metadata;
+
+	/**
+	 * Pending references by id.
+	 */
+	private final Map<Long, ModelEntity<?>> references;
+
+	/**
+	 * @param helper
+	 * @param dialect
+	 * @param entityClass
+	 */
+	LazyBatch(ModelHelper helper, SqlDialect dialect, Class<?> entityClass) {
+		this.helper = helper;
+		this.dialect = dialect;
+		this.entityClass = entityClass;
+		this.metadata = EntityMetadata.get(entityClass);
+		this.references = new LinkedHashMap<Long, ModelEntity<?>>();
+	}
+
+	/**
+	 * @param id
+	 * @return pending reference with the given id (the same instance for the same id).
+	 */
+	synchronized ModelEntity<?> reference(Long id) {
+		ModelEntity<?> reference = references.get(id);
+		if(reference == null) {
+			reference = (ModelEntity<?>) metadata.newInstance();
+			reference.setId(id);
+			reference.snapshot();
+			reference.setLazyBatch(this);
+			references.put(id, reference);
+		}
+		return reference;
+	}
+
+	/**
+	 * Load the given reference and the next pending ones.
+	 *
+	 * @param reference
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	synchronized void resolve(ModelEntity<?> reference) throws ConnectionException, ModelException {
+		// Already resolved by other thread.
+		if(references.get(reference.getId()) != reference) {
+			return;
+		}
+
+		List<Long> ids = new ArrayList<Long>();
+		ids.add(reference.getId());
+		for(Long id: references.keySet()) {
+			if(ids.size() >= Math.max(1, ModelConstants.LAZY_BATCH_SIZE)) {
+				break;
+			}
+			if(!id.equals(reference.getId())) {
+				ids.add(id);
+			}
+		}
+
+		Criteria criteria = new Criteria(entityClass).addFilter(metadata.getIdColumn().getAttributeName(), Filter.IN, ids);
+		RowMapper mapper = RowMapperFactory.getEntityMapper((Class) entityClass, criteria);
+		RowHandler<ModelEntity<?>> handler = new RowHandler<ModelEntity<?>>() {
+			public void handle(ModelEntity<?> entity) {
+				ModelEntity<?> pending = references.get(entity.getId());
+				if(pending != null) {
+					load(pending, entity);
+				}
+			}
+		};
+		try {
+			for(int i = 0; i < criteria.getInChunkCount(); i++) {
+				criteria.selectInChunk(i);
+				helper.handle(dialect.buildFind(metadata.getTableName(), criteria), criteria.getConditionsValues(), mapper, handler, true);
+			}
+		}
+		finally {
+			criteria.selectInChunk(0);
+		}
+
+		// References not found keep only the id (and the snapshot taken when they were created).
+		for(Long id: ids) {
+			ModelEntity<?> resolved = references.remove(id);
+			if(resolved != null) {
+				resolved.setLazyBatch(null);
+			}
+		}
+	}
+
+	/**
+	 * Copy the loaded values into the pending reference and take the snapshot, keeping the columns changed in the
+	 * reference (so they stay dirty).
+	 * 
+	 * @param pending
+	 * @param loaded
+	 */
+	private void load(ModelEntity<?> pending, ModelEntity<?> loaded) {
+		FieldList changedFields = pending.getChangedFields();
+		for(ColumnField column: metadata.getColumns()) {
+			column.getAccessor().set(pending, column.getAccessor().get(loaded));
+		}
+		pending.snapshot();
+		if(changedFields != null) {
+			for(ColumnField field: changedFields) {
+				field.getAccessor().set(pending, field.getValue());
+			}
+		}
+	}
+}
@@ -24,4 +24,69 @@ public final class ModelConstants {
 	 * Pagination default page size.
 	 */
 	public static int DEFAULT_PAGE_SIZE = 10;
+
+	/**
+	 * Map rows with the cached row mappers (false maps through the generic reflective population, for debugging).
+	 */
+	public static boolean USE_ROW_MAPPERS = true;
+
+	/**
+	 * Max number of sql statements cached by the dialect (0 disables the cache). Read once, when the dialect class is
+	 * loaded, so it must be set before the first use.
+	 */
+	public static int SQL_CACHE_SIZE = 1000;
+
+	/**
+	 * Max number of parsed conditions (with \@fields) memoized per entity class (0 disables the cache). Read when the
+	 * first condition of each entity class is parsed.
+	 */
+	public static int CONDITION_CACHE_SIZE = 500;
+
+	/**
+	 * Max number of prepared statements cached per open connection (0 disables the cache). The cache is discarded
+	 * when the connection is closed (see StatementCache).
+	 */
+	public static int STATEMENT_CACHE_SIZE = 50;
+
+	/**
+	 * Default strategy to find the total rows of a paging (see PagingCriteria.Count).
+	 */
+	public static int DEFAULT_COUNT_STRATEGY = 0;
+
+	/**
+	 * Max number of totals cached by the count strategy PagingCriteria.Count.CACHED (0 disables the cache). Read when
+	 * each Database is created.
+	 */
+	public static int COUNT_CACHE_SIZE = 1000;
+
+	/**
+	 * Time to live (in milliseconds) of the totals cached by the count strategy PagingCriteria.Count.CACHED.
+	 */
+	public static long COUNT_CACHE_TTL = 60000;
+
+	/**
+	 * Max number of values (placeholders) of an IN filter, above which the filter is split in chunks executed
+	 * separately (rounded down to a power of two).
+	 */
+	public static int IN_MAX_PARAMETERS = 1024;
+
+	/**
+	 * Number of records sent per batch by the batch operations (eg: ModelDao.insertAll).
+	 */
+	public static int BATCH_SIZE = 500;
+
+	/**
+	 * Max number of rows of a multi-row insert statement (see ModelDao.bulkInsert).
+	 */
+	public static int BULK_INSERT_MAX_ROWS = 1000;
+
+	/**
+	 * Snapshot the entities loaded (or saved) so the update writes only the changed columns.
+	 */
+	public static boolean DIRTY_TRACKING = true;
+
+	/**
+	 * Max number of lazy references (see Criteria.enableLazyFetch) resolved by a single query.
+	 */
+	public static int LAZY_BATCH_SIZE = 100;
 }
\ No newline at end of file
@@ -11,7 +11,15 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.sql.rowset.CachedRowSet;
 
@@ -24,35 +32,51 @@ import com.ipfaffen.ovenbird.commons.PagingHelper;
 import com.ipfaffen.ovenbird.commons.ReflectionUtil;
 import com.ipfaffen.ovenbird.model.annotation.Interceptor;
 import com.ipfaffen.ovenbird.model.builder.ObjectBuilder;
+import com.ipfaffen.ovenbird.model.codec.TypeCodecRegistry;
 import com.ipfaffen.ovenbird.model.connection.ConnectionHandler;
 import com.ipfaffen.ovenbird.model.connection.Database;
 import com.ipfaffen.ovenbird.model.criteria.Criteria;
+import com.ipfaffen.ovenbird.model.criteria.Criteria.Filter;
 import com.ipfaffen.ovenbird.model.criteria.PagingCriteria;
+import com.ipfaffen.ovenbird.model.criteria.PagingCriteria.Count;
+import com.ipfaffen.ovenbird.model.criteria.PreparedCriteria;
 import com.ipfaffen.ovenbird.model.dialect.SqlDialect;
+import com.ipfaffen.ovenbird.model.dialect.SqlKey;
 import com.ipfaffen.ovenbird.model.exception.ConnectionException;
 import com.ipfaffen.ovenbird.model.exception.InterceptorException;
 import com.ipfaffen.ovenbird.model.exception.ModelException;
+import com.ipfaffen.ovenbird.model.mapper.RowHandler;
+import com.ipfaffen.ovenbird.model.mapper.RowMapper;
+import com.ipfaffen.ovenbird.model.mapper.RowMapperFactory;
+import com.ipfaffen.ovenbird.model.metadata.EntityMetadata;
 import com.ipfaffen.ovenbird.model.transaction.ResultTransaction;
 import com.ipfaffen.ovenbird.model.transaction.Transaction;
+import com.ipfaffen.ovenbird.model.util.BoundedCache;
+import com.ipfaffen.ovenbird.model.util.CachedCount;
 import com.ipfaffen.ovenbird.model.util.ColumnField;
 import com.ipfaffen.ovenbird.model.util.FieldList;
+import com.ipfaffen.ovenbird.model.util.JoinCollectionField;
 import com.ipfaffen.ovenbird.model.util.JoinColumnField;
+import com.ipfaffen.ovenbird.model.util.KeysetPagedList;
+import com.ipfaffen.ovenbird.model.util.LongMap;
 
 /**
  * @author Isaias Pfaffenseller
  */
 public abstract class ModelDao<T extends ModelEntity<T>> implements ConnectionHandler {
-	
+
 	private Database db;
 	private ModelHelper helper;
 	private SqlDialect dialect;
 
 	private Class<T> entityClass;
+	private EntityMetadata metadata;
 	private ColumnField entityIdField;
 	private ModelInterceptor<T> interceptor;
 
 	private String tableName;
 	private String basePackage;
+	private List<CascadeStep> cascadePlan;
 
 	public ModelDao(Database db) {
 		initialize(db);
@@ -75,8 +99,9 @@ public abstract class ModelDao<T extends ModelEntity<T>> implements ConnectionHa
 			// This is necessary when transaction proxy is been used.
 			entityClass = (Class<T>) ((ParameterizedType) getClass().getSuperclass().getGenericSuperclass()).getActualTypeArguments()[0];
 		}
-		entityIdField = ModelUtil.getIdField(entityClass);
-		tableName = ModelUtil.getTableName(entityClass);
+		metadata = EntityMetadata.get(entityClass);
+		entityIdField = metadata.getIdColumn();
+		tableName = metadata.getTableName();
 		basePackage = StringUtils.substringBeforeLast(entityClass.getPackage().getName(), ".");
 	}
 
@@ -85,21 +110,621 @@ public abstract class ModelDao<T extends ModelEntity<T>> implements ConnectionHa
 	}
 
 	/**
-	 * Insert record in the database.
+	 * Insert record in the database.
+	 */
+	public T insert(T entity) throws ConnectionException, ModelException, InterceptorException {
+		boolean success = true;
+		try {
+			openTransaction();
+
+			if(interceptor != null) {
+				interceptor.setEntity(entity);
+				interceptor.beforeSave();
+				interceptor.beforeInsert();
+			}
+			
+			insertRecord(entity);
+			return entity;
+		}
+		catch(Exception e) {
+			success = false;
+			throw e;
+		}
+		finally {
+			if(interceptor != null) {
+				interceptor.afterSave(success);
+				interceptor.afterInsert(success);
+			}
+			closeTransaction(success);
+		}
+	}
+
+	/**
+	 * Insert records in the database in a single transaction, with jdbc batches of ModelConstants.BATCH_SIZE records.<br>
+	 * The entities without id are inserted before (and apart from) the ones with id, so the generated ids are set to
+	 * them in order. The interceptor is called once per batch (see {@link ModelInterceptor#getEntities()}).
+	 * 
+	 * @param entities
+	 * @return
+	 */
+	public Collection<T> insertAll(Collection<T> entities) throws ConnectionException, ModelException, InterceptorException {
+		if(entities.isEmpty()) {
+			return entities;
+		}
+
+		boolean success = true;
+		try {
+			openTransaction();
+
+			int batchSize = Math.max(1, ModelConstants.BATCH_SIZE);
+			for(List<T> entityList: splitById(entities)) {
+				for(int i = 0; i < entityList.size(); i += batchSize) {
+					insertBatch(entityList.subList(i, Math.min(i + batchSize, entityList.size())), false);
+				}
+			}
+			return entities;
+		}
+		catch(Exception e) {
+			success = false;
+			throw e;
+		}
+		finally {
+			closeTransaction(success);
+		}
+	}
+
+	/**
+	 * Insert records in the database in a single transaction, with multi-row statements (INSERT ... VALUES (...),
+	 * (...)).<br>
+	 * The rows per statement are limited by the server max packet size, the max parameters of the dialect and
+	 * ModelConstants.BULK_INSERT_MAX_ROWS, and the remaining rows are split in power of two statements, so only a few
+	 * statement shapes are prepared. The generated ids are set to the entities without id (as returned by the driver,
+	 * which expects consecutive ids). The interceptor is called once per statement (see
+	 * {@link ModelInterceptor#getEntities()}).
+	 * 
+	 * @param entities
+	 * @return
+	 */
+	public Collection<T> bulkInsert(Collection<T> entities) throws ConnectionException, ModelException, InterceptorException {
+		if(entities.isEmpty()) {
+			return entities;
+		}
+
+		boolean success = true;
+		try {
+			openTransaction();
+
+			for(List<T> entityList: splitById(entities)) {
+				bulkInsertRows(entityList);
+			}
+			return entities;
+		}
+		catch(Exception e) {
+			success = false;
+			throw e;
+		}
+		finally {
+			closeTransaction(success);
+		}
+	}
+
+	/**
+	 * Entities with and without id are inserted apart so the generated keys match the rows (MySQL returns the explicit
+	 * AUTO_INCREMENT values as generated keys too).
+	 * 
+	 * @param entities
+	 * @return entities without id and entities with id.
+	 */
+	private List<List<T>> splitById(Collection<T> entities) {
+		List<T> entitiesWithoutId = new ArrayList<T>();
+		List<T> entitiesWithId = new ArrayList<T>();
+		for(T entity: entities) {
+			if(entity.getId() == null) {
+				entitiesWithoutId.add(entity);
+			}
+			else {
+				entitiesWithId.add(entity);
+			}
+		}
+		return Arrays.asList(entitiesWithoutId, entitiesWithId);
+	}
+
+	/**
+	 * @param entityList
+	 */
+	private void bulkInsertRows(List<T> entityList) throws ModelException, InterceptorException {
+		if(entityList.isEmpty()) {
+			return;
+		}
+		int rows = getRowsPerInsert(entityList);
+		int i = 0;
+		while(i < entityList.size()) {
+			int remainingRows = entityList.size() - i;
+			int statementRows = (remainingRows >= rows) ? rows : Integer.highestOneBit(remainingRows);
+			insertBatch(entityList.subList(i, i + statementRows), true);
+			i += statementRows;
+		}
+	}
+
+	/**
+	 * @param entityList
+	 * @return number of rows per multi-row insert statement.
+	 */
+	private int getRowsPerInsert(List<T> entityList) throws ModelException {
+		long maxRowSize = 1;
+		for(T entity: entityList) {
+			maxRowSize = Math.max(maxRowSize, estimateSize(ModelUtil.getEntityFields(entity)));
+		}
+
+		// A quarter of the packet is left to the sql and protocol overhead.
+		long rows = (getMaxPacketSize() * 3 / 4) / maxRowSize;
+		rows = Math.min(rows, dialect().getMaxParameters() / metadata.getColumns().size());
+		rows = Math.min(rows, ModelConstants.BULK_INSERT_MAX_ROWS);
+		return (int) Math.max(1, rows);
+	}
+
+	/**
+	 * @param fields
+	 * @return estimated size (in bytes) of the values sent to the server.
+	 */
+	private long estimateSize(FieldList fields) {
+		long size = 0;
+		for(ColumnField field: fields) {
+			Object value = field.getValue();
+			if(value instanceof String) {
+				// Up to 4 bytes per char (utf8mb4).
+				size += ((String) value).length() * 4L;
+			}
+			else if(value instanceof byte[]) {
+				size += ((byte[]) value).length;
+			}
+			else if(value != null) {
+				size += value.toString().length();
+			}
+			// Type and length header.
+			size += 9;
+		}
+		return size;
+	}
+
+	/**
+	 * @return max size (in bytes) of a packet accepted by the server (read once per database).
+	 */
+	private long getMaxPacketSize() throws ModelException {
+		if(db.getMaxPacketSize() > 0) {
+			return db.getMaxPacketSize();
+		}
+		PreparedStatement statement = null;
+		ResultSet resultSet = null;
+		try {
+			statement = helper().prepareStatement(dialect().buildMaxPacketSize());
+			resultSet = statement.executeQuery();
+			if(resultSet.next()) {
+				db.setMaxPacketSize(resultSet.getLong(1));
+			}
+			return db.getMaxPacketSize();
+		}
+		catch(Exception e) {
+			throw new ModelException(String.format("Occurred a problem reading the max packet size: %s", e.getMessage()), e);
+		}
+		finally {
+			helper().close(resultSet);
+			helper().close(statement);
+		}
+	}
+
+	/**
+	 * @param batch
+	 * @param multiRow - <code>true</code>: one multi-row insert statement<br>
+	 * <code>false</code>: jdbc batch
+	 */
+	private void insertBatch(List<T> batch, boolean multiRow) throws ModelException, InterceptorException {
+		boolean success = true;
+		try {
+			if(interceptor != null) {
+				interceptor.setEntity(null);
+				interceptor.setEntities(batch);
+				interceptor.beforeSave();
+				interceptor.beforeInsert();
+			}
+
+			if(multiRow) {
+				insertRows(batch);
+			}
+			else {
+				insertRecords(batch);
+			}
+		}
+		catch(Exception e) {
+			success = false;
+			throw e;
+		}
+		finally {
+			if(interceptor != null) {
+				interceptor.afterSave(success);
+				interceptor.afterInsert(success);
+				interceptor.setEntities(null);
+			}
+		}
+	}
+
+	private void insertRecords(List<T> batch) throws ModelException {
+		PreparedStatement statement = null;
+		ResultSet generatedKeys = null;
+		try {
+			statement = helper().prepareStatement(dialect().buildInsert(tableName, ModelUtil.getEntityFields(entityClass)), Statement.RETURN_GENERATED_KEYS);
+			for(T entity: batch) {
+				bindFieldParameters(statement, ModelUtil.getEntityFields(entity), 1);
+				statement.addBatch();
+			}
+			statement.executeBatch();
+
+			generatedKeys = statement.getGeneratedKeys();
+			setGeneratedIds(generatedKeys, batch);
+		}
+		catch(Exception e) {
+			throw new ModelException(String.format("Occurred a problem in insertion: %s", e.getMessage()), e);
+		}
+		finally {
+			helper().close(generatedKeys);
+			helper().close(statement);
+		}
+	}
+
+	private void insertRows(List<T> batch) throws ModelException {
+		PreparedStatement statement = null;
+		ResultSet generatedKeys = null;
+		try {
+			FieldList fields = ModelUtil.getEntityFields(entityClass);
+			statement = helper().prepareStatement(dialect().buildInsert(tableName, fields, batch.size()), Statement.RETURN_GENERATED_KEYS);
+			int parameterIndex = 1;
+			for(T entity: batch) {
+				parameterIndex = bindFieldParameters(statement, ModelUtil.getEntityFields(entity), parameterIndex);
+			}
+			statement.executeUpdate();
+
+			generatedKeys = statement.getGeneratedKeys();
+			setGeneratedIds(generatedKeys, batch);
+		}
+		catch(Exception e) {
+			throw new ModelException(String.format("Occurred a problem in insertion: %s", e.getMessage()), e);
+		}
+		finally {
+			helper().close(generatedKeys);
+			helper().close(statement);
+		}
+	}
+
+	/**
+	 * Keys are generated (in order) only for the entities without id.
+	 * 
+	 * @param generatedKeys
+	 * @param entityList
+	 * @throws SQLException
+	 */
+	private void setGeneratedIds(ResultSet generatedKeys, List<T> entityList) throws SQLException {
+		boolean hasGeneratedKey = true;
+		for(T entity: entityList) {
+			if(entity.getId() == null && hasGeneratedKey) {
+				hasGeneratedKey = generatedKeys.next();
+				if(hasGeneratedKey) {
+					entityIdField.getAccessor().set(entity, generatedKeys.getLong(1));
+				}
+			}
+			entity.snapshot();
+		}
+	}
+
+	private void insertRecord(T entity) throws ModelException {
+		PreparedStatement statement = null;
+		ResultSet generatedKeys = null;
+		try {
+			FieldList fields = ModelUtil.getEntityFields(entity);
+
+			statement = buildInsertPreparedStatement(fields);
+			statement.executeUpdate();
+
+			generatedKeys = statement.getGeneratedKeys();
+			if(generatedKeys.next()) {
+				entityIdField.getAccessor().set(entity, generatedKeys.getLong(1));
+			}
+			entity.snapshot();
+		}
+		catch(Exception e) {
+			throw new ModelException(String.format("Occurred a problem in insertion: %s", e.getMessage()), e);
+		}
+		finally {
+			helper().close(generatedKeys);
+			helper().close(statement);
+		}
+	}
+
+	private PreparedStatement buildInsertPreparedStatement(FieldList fields) throws SQLException {
+		PreparedStatement statement = helper().prepareStatement(dialect().buildInsert(tableName, fields), Statement.RETURN_GENERATED_KEYS);
+		bindFieldParameters(statement, fields, 1);
+		return statement;
+	}
+
+	/**
+	 * @param statement
+	 * @param fields
+	 * @param startIndex - index of the first parameter.
+	 * @return index of the next parameter.
+	 * @throws SQLException
+	 */
+	private int bindFieldParameters(PreparedStatement statement, FieldList fields, int startIndex) throws SQLException {
+		int parameterIndex = startIndex;
+		for(ColumnField field: fields) {
+			TypeCodecRegistry.get(field.getType()).set(statement, parameterIndex++, field.getValue());
+		}
+		return parameterIndex;
+	}
+
+	/**
+	 * Insert the record or, if it already exists (by primary or unique key), update it in a single statement.<br>
+	 * The id of the inserted or updated record is set to the entity.
+	 * 
+	 * @param entity
+	 * @param updateFieldNames - fields overwritten in the existing record (none to overwrite all fields).
+	 * @return
+	 */
+	public T upsert(T entity, String... updateFieldNames) throws ConnectionException, ModelException, InterceptorException {
+		List<T> entityList = new ArrayList<T>();
+		entityList.add(entity);
+		upsertAll(entityList, updateFieldNames);
+		return entity;
+	}
+
+	/**
+	 * Insert or update (see {@link #upsert(ModelEntity, String...)}) the records in a single transaction, in groups of
+	 * ModelConstants.BATCH_SIZE records.<br>
+	 * Each record is executed by its own statement (reusing the prepared statement), since the driver does not return
+	 * one generated key per record of a batch with updated or unchanged records, and its id is set to the entity. The
+	 * interceptor is called once per group (only beforeSave and afterSave, see {@link ModelInterceptor#getEntities()}).
+	 * 
+	 * @param entities
+	 * @param updateFieldNames - fields overwritten in the existing records (none to overwrite all fields).
+	 * @return
+	 */
+	public Collection<T> upsertAll(Collection<T> entities, String... updateFieldNames) throws ConnectionException, ModelException, InterceptorException {
+		if(entities.isEmpty()) {
+			return entities;
+		}
+
+		boolean success = true;
+		try {
+			openTransaction();
+
+			FieldList fields = ModelUtil.getEntityFields(entityClass);
+			FieldList updateFields = (updateFieldNames.length == 0) ? fields : ModelUtil.buildFieldList(entityClass, getNameValues(updateFieldNames));
+			String sql = dialect().buildUpsert(tableName, fields, updateFields);
+
+			List<T> entityList = new ArrayList<T>(entities);
+			int batchSize = Math.max(1, ModelConstants.BATCH_SIZE);
+			for(int i = 0; i < entityList.size(); i += batchSize) {
+				upsertBatch(sql, entityList.subList(i, Math.min(i + batchSize, entityList.size())));
+			}
+			return entities;
+		}
+		catch(Exception e) {
+			success = false;
+			throw e;
+		}
+		finally {
+			closeTransaction(success);
+		}
+	}
+
+	/**
+	 * @param fieldNames
+	 * @return name value pairs without value.
+	 */
+	private List<NameValue> getNameValues(String[] fieldNames) {
+		List<NameValue> nameValues = new ArrayList<NameValue>(fieldNames.length);
+		for(String fieldName: fieldNames) {
+			nameValues.add(new NameValue(fieldName, null));
+		}
+		return nameValues;
+	}
+
+	/**
+	 * @param sql
+	 * @param batch
+	 */
+	private void upsertBatch(String sql, List<T> batch) throws ModelException, InterceptorException {
+		boolean success = true;
+		try {
+			if(interceptor != null) {
+				interceptor.setEntity(null);
+				interceptor.setEntities(batch);
+				interceptor.beforeSave();
+			}
+
+			upsertRecords(sql, batch);
+		}
+		catch(Exception e) {
+			success = false;
+			throw e;
+		}
+		finally {
+			if(interceptor != null) {
+				interceptor.afterSave(success);
+				interceptor.setEntities(null);
+			}
+		}
+	}
+
+	/**
+	 * Execute the upsert of each record and set its id, read from the first generated key (an updated record may
+	 * report more than one) or, when the record was not changed and no key is returned, from the last insert id.
+	 * 
+	 * @param sql
+	 * @param batch
+	 * @throws ModelException if the id of some record is not returned.
+	 */
+	private void upsertRecords(String sql, List<T> batch) throws ModelException {
+		PreparedStatement statement = null;
+		try {
+			statement = helper().prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+			for(T entity: batch) {
+				bindFieldParameters(statement, ModelUtil.getEntityFields(entity), 1);
+				statement.executeUpdate();
+
+				Long id = readGeneratedKey(statement);
+				if(id == null) {
+					id = readLastInsertId();
+				}
+				if(id == null) {
+					throw new ModelException("The id of the upserted record was not returned.");
+				}
+				entityIdField.getAccessor().set(entity, id);
+				entity.snapshot();
+			}
+		}
+		catch(ModelException e) {
+			throw e;
+		}
+		catch(Exception e) {
+			throw new ModelException(String.format("Occurred a problem in the upsert: %s", e.getMessage()), e);
+		}
+		finally {
+			helper().close(statement);
+		}
+	}
+
+	/**
+	 * @param statement
+	 * @return first generated key of the last execution of the statement (<code>null</code> if none).
+	 * @throws SQLException
+	 */
+	private Long readGeneratedKey(PreparedStatement statement) throws SQLException {
+		ResultSet generatedKeys = null;
+		try {
+			generatedKeys = statement.getGeneratedKeys();
+			return (generatedKeys.next()) ? generatedKeys.getLong(1) : null;
+		}
+		finally {
+			helper().close(generatedKeys);
+		}
+	}
+
+	/**
+	 * @return last insert id of the connection (<code>null</code> if none).
+	 * @throws SQLException
+	 */
+	private Long readLastInsertId() throws SQLException {
+		PreparedStatement statement = null;
+		ResultSet resultSet = null;
+		try {
+			statement = helper().prepareStatement(dialect().buildLastInsertId());
+			resultSet = statement.executeQuery();
+			long id = (resultSet.next()) ? resultSet.getLong(1) : 0;
+			return (id > 0) ? id : null;
+		}
+		finally {
+			helper().close(resultSet);
+			helper().close(statement);
+		}
+	}
+
+	/**
+	 * Update record in the database.<br>
+	 * Only the changed columns are written if the entity was loaded (or saved) by the dao (see
+	 * ModelConstants.DIRTY_TRACKING), and nothing if none was changed.
+	 */
+	public T update(T entity) throws ConnectionException, ModelException, InterceptorException {
+		if(updateByCriteria(idCriteria(entity.getId()), entity) == 0) {
+			throw new ModelException("No record was updated.");
+		}
+		return entity;
+	}
+
+	/**
+	 * Update records in the database in a single transaction, with jdbc batches of ModelConstants.BATCH_SIZE records
+	 * grouped by the updated columns (only the changed ones for the entities loaded by the dao, see
+	 * {@link #update(ModelEntity)}).<br>
+	 * The interceptor is called once for all entities, before the changed fields are read (see
+	 * {@link ModelInterceptor#getEntities()}).
+	 * 
+	 * @param entities
+	 * @return number of records updated for each entity (in the collection order), 0 if it was not changed.
+	 */
+	public int[] updateAll(Collection<T> entities) throws ConnectionException, ModelException, InterceptorException {
+		return updateEntities(entities, null);
+	}
+
+	/**
+	 * Update the given fields of the records in the database (see {@link #updateAll(Collection)}).
+	 * 
+	 * @param entities
+	 * @param fieldNames
+	 * @return number of records updated for each entity (in the collection order).
+	 */
+	public int[] updateFieldsAll(Collection<T> entities, String... fieldNames) throws ConnectionException, ModelException, InterceptorException {
+		return updateEntities(entities, fieldNames);
+	}
+
+	/**
+	 * @param entities
+	 * @param fieldNames - null to update all fields.
+	 * @return
 	 */
-	public T insert(T entity) throws ConnectionException, ModelException, InterceptorException {
+	private int[] updateEntities(Collection<T> entities, String[] fieldNames) throws ConnectionException, ModelException, InterceptorException {
+		List<T> entityList = new ArrayList<T>(entities);
+		int[] updatedRecords = new int[entityList.size()];
+		if(entityList.isEmpty()) {
+			return updatedRecords;
+		}
+
 		boolean success = true;
 		try {
 			openTransaction();
 
+			for(T entity: entityList) {
+				if(entity.getId() == null) {
+					throw new ModelException("Entity without id cannot be updated.");
+				}
+			}
+
+			// The interceptor runs before the fields are read, so its changes are written too.
 			if(interceptor != null) {
-				interceptor.setEntity(entity);
+				interceptor.setEntity(null);
+				interceptor.setEntities(entityList);
 				interceptor.beforeSave();
-				interceptor.beforeInsert();
+				interceptor.beforeUpdate();
 			}
-			
-			insertRecord(entity);
-			return entity;
+
+			// Entities (positions) grouped by the updated columns, so each group shares one statement.
+			Map<List<String>, List<Integer>> groups = new LinkedHashMap<List<String>, List<Integer>>();
+			List<FieldList> entityFields = new ArrayList<FieldList>(entityList.size());
+			for(int i = 0; i < entityList.size(); i++) {
+				T entity = entityList.get(i);
+				FieldList fields = (fieldNames == null) ? getUpdateFields(entity) : ModelUtil.getEntityFields(entity, fieldNames);
+				entityFields.add(fields);
+				if(fields.isEmpty()) {
+					// Nothing was changed.
+					continue;
+				}
+
+				List<String> columnNames = new ArrayList<String>(fields.size());
+				for(ColumnField field: fields) {
+					columnNames.add(field.getColumnName());
+				}
+				List<Integer> positions = groups.get(columnNames);
+				if(positions == null) {
+					positions = new ArrayList<Integer>();
+					groups.put(columnNames, positions);
+				}
+				positions.add(i);
+			}
+
+			int batchSize = Math.max(1, ModelConstants.BATCH_SIZE);
+			for(List<Integer> positions: groups.values()) {
+				for(int i = 0; i < positions.size(); i += batchSize) {
+					updateBatch(entityList, entityFields, positions.subList(i, Math.min(i + batchSize, positions.size())), updatedRecords);
+				}
+			}
+			return updatedRecords;
 		}
 		catch(Exception e) {
 			success = false;
@@ -108,55 +733,68 @@ public abstract class ModelDao<T extends ModelEntity<T>> implements ConnectionHa
 		finally {
 			if(interceptor != null) {
 				interceptor.afterSave(success);
-				interceptor.afterInsert(success);
+				interceptor.afterUpdate(success);
+				interceptor.setEntities(null);
 			}
 			closeTransaction(success);
 		}
 	}
 
-	private void insertRecord(T entity) throws ModelException {
-		PreparedStatement statement = null;
-		ResultSet generatedKeys = null;
-		try {
-			FieldList fields = ModelUtil.getEntityFields(entity);
+	/**
+	 * @param entityList
+	 * @param entityFields - fields of each entity.
+	 * @param positions - positions of the batch entities (with the same fields).
+	 * @param updatedRecords - number of records updated for each entity.
+	 */
+	private void updateBatch(List<T> entityList, List<FieldList> entityFields, List<Integer> positions, int[] updatedRecords) throws ModelException {
+		List<T> batch = new ArrayList<T>(positions.size());
+		for(Integer position: positions) {
+			batch.add(entityList.get(position));
+		}
 
-			statement = buildInsertPreparedStatement(fields);
-			statement.executeUpdate();
+		int[] batchUpdatedRecords = updateRecords(batch, entityFields.get(positions.get(0)), entityFields, positions);
+		for(int i = 0; i < batchUpdatedRecords.length; i++) {
+			updatedRecords[positions.get(i)] = batchUpdatedRecords[i];
+			batch.get(i).snapshot();
+		}
+	}
 
-			generatedKeys = statement.getGeneratedKeys();
-			if(generatedKeys.next()) {
-				ReflectionUtil.callFieldSetter(entity, entityIdField.getAttributeName(), Long.class, generatedKeys.getLong(1));
+	private int[] updateRecords(List<T> batch, FieldList columns, List<FieldList> entityFields, List<Integer> positions) throws ModelException {
+		PreparedStatement statement = null;
+		try {
+			statement = helper().prepareStatement(dialect().buildUpdate(tableName, idCriteria(batch.get(0).getId()), columns));
+			for(int i = 0; i < batch.size(); i++) {
+				FieldList fields = entityFields.get(positions.get(i));
+				int parameterIndex = bindFieldParameters(statement, fields, 1);
+				TypeCodecRegistry.bind(statement, parameterIndex, batch.get(i).getId());
+				statement.addBatch();
 			}
+			return statement.executeBatch();
 		}
 		catch(Exception e) {
-			throw new ModelException(String.format("Occurred a problem in insertion: %s", e.getMessage()), e);
+			throw new ModelException(String.format("Occurred a problem in the update: %s", e.getMessage()), e);
 		}
 		finally {
-			helper().close(generatedKeys);
 			helper().close(statement);
 		}
 	}
 
-	private PreparedStatement buildInsertPreparedStatement(FieldList fields) throws SQLException {
-		PreparedStatement statement = getConnection().prepareStatement(dialect().buildInsert(tableName, fields), Statement.RETURN_GENERATED_KEYS);
-		for(int i = 1; i <= fields.size(); i++) {
-			statement.setObject(i, fields.get(i - 1).getValue());
-		}
-		return statement;
-	}
-
 	/**
-	 * Update record in the database.
+	 * @param entity
+	 * @return changed fields if the entity is tracked, otherwise all fields but the id.
 	 */
-	public T update(T entity) throws ConnectionException, ModelException, InterceptorException {
-		if(updateByCriteria(idCriteria(entity.getId()), entity) <= 0) {
-			throw new ModelException("No record was updated.");
+	private FieldList getUpdateFields(T entity) {
+		FieldList fields = entity.getChangedFields();
+		if(fields != null) {
+			return fields;
 		}
-		return entity;
+		fields = ModelUtil.getEntityFields(entity);
+		fields.remove(fields.getIdField());
+		return fields;
 	}
 
 	/**
-	 * @return number of records updated.
+	 * @return number of records updated (-1 if nothing was changed).
 	 */
 	private int updateByCriteria(Criteria criteria, T entity) throws ConnectionException, ModelException, InterceptorException {
 		boolean success = true;
@@ -171,7 +809,14 @@ public abstract class ModelDao<T extends ModelEntity<T>> implements ConnectionHa
 				interceptor.beforeUpdate();
 			}
 
-			updatedRecords = updateRecord(criteria, ModelUtil.getEntityFields(entity));
+			FieldList fields = getUpdateFields(entity);
+			if(fields.isEmpty()) {
+				updatedRecords = -1;
+			}
+			else {
+				updatedRecords = updateRecord(criteria, fields);
+				entity.snapshot();
+			}
 		}
 		catch(Exception e) {
 			success = false;
@@ -281,23 +926,29 @@ public abstract class ModelDao<T extends ModelEntity<T>> implements ConnectionHa
 	}
 
 	private int updateRecord(Criteria criteria, FieldList fields) throws ModelException {
-		PreparedStatement statement = null;
-		try {
-			statement = buildUpdatePreparedStatement(criteria, fields);
-			return statement.executeUpdate();
-		}
-		catch(Exception e) {
-			throw new ModelException(String.format("Occurred a problem in the update: %s", e.getMessage()), e);
-		}
-		finally {
-			helper().close(statement);
+		int updatedRecords = 0;
+		for(int i = 0; i < criteria.getInChunkCount(); i++) {
+			criteria.selectInChunk(i);
+			PreparedStatement statement = null;
+			try {
+				statement = buildUpdatePreparedStatement(criteria, fields);
+				updatedRecords += statement.executeUpdate();
+			}
+			catch(Exception e) {
+				throw new ModelException(String.format("Occurred a problem in the update: %s", e.getMessage()), e);
+			}
+			finally {
+				helper().close(statement);
+			}
 		}
+		return updatedRecords;
 	}
 
 	private PreparedStatement buildUpdatePreparedStatement(Criteria criteria, FieldList fields) throws SQLException {
-		PreparedStatement statement = getConnection().prepareStatement(dialect().buildUpdate(tableName, criteria, fields));
+		PreparedStatement statement = helper().prepareStatement(dialect().buildUpdate(tableName, criteria, fields));
 		for(int i = 1; i <= fields.size(); i++) {
-			statement.setObject(i, fields.get(i - 1).getValue());
+			ColumnField field = fields.get(i - 1);
+			TypeCodecRegistry.get(field.getType()).set(statement, i, field.getValue());
 		}
 		helper().addParameters(statement, criteria.getConditionsValues(), (fields.size() + 1));
 		return statement;
@@ -403,8 +1054,8 @@ public abstract class ModelDao<T extends ModelEntity<T>> implements ConnectionHa
 			openTransaction();
 			criteria.setResultLimit(null);
 
-			if(cascadeDelete) {
-				deleteRelated(findByCriteria(criteria));
+			if(cascadeDelete && !getCascadePlan().isEmpty()) {
+				deleteRelated(findIds(criteria));
 			}
 			if(interceptor != null) {
 				interceptor.beforeDelete();
@@ -426,207 +1077,757 @@ public abstract class ModelDao<T extends ModelEntity<T>> implements ConnectionHa
 	}
 
 	private int deleteRecord(Criteria criteria) throws ModelException {
+		int deletedRecords = 0;
+		for(int i = 0; i < criteria.getInChunkCount(); i++) {
+			criteria.selectInChunk(i);
+			PreparedStatement statement = null;
+			try {
+				statement = buildDeletePreparedStatement(criteria);
+				deletedRecords += statement.executeUpdate();
+			}
+			catch(Exception e) {
+				throw new ModelException(String.format("Occurred a problem in the deletion: %s", e.getMessage()), e);
+			}
+			finally {
+				helper().close(statement);
+			}
+		}
+		return deletedRecords;
+	}
+
+	/**
+	 * Delete the relationships (deepest level first), one delete per related table and join field.
+	 * 
+	 * @param ids - ids of the records being deleted.
+	 */
+	private void deleteRelated(List<Object> ids) throws ConnectionException, ModelException, InterceptorException {
+		if(ids.isEmpty()) {
+			return;
+		}
+		for(CascadeStep step: getCascadePlan()) {
+			for(String joinFieldName: step.joinFieldNames) {
+				step.dao.deleteByCriteria(step.dao.criteria().addFilter(joinFieldName, Filter.IN, ids), true);
+			}
+		}
+	}
+
+	/**
+	 * @return related daos and the join fields referencing this entity (built once per dao).
+	 */
+	private List<CascadeStep> getCascadePlan() {
+		if(cascadePlan == null) {
+			List<CascadeStep> plan = new ArrayList<CascadeStep>();
+			for(Class<?> relatedEntityClass: getRelatedEntityClass()) {
+				String relatedDaoClassName = basePackage.concat(".").concat(relatedEntityClass.getSimpleName()).concat("Dao");
+				ModelDao<?> relatedDao = (ModelDao<?>) ReflectionUtil.newInstance(relatedDaoClassName, Database.class, db);
+
+				List<String> joinFieldNames = new ArrayList<String>();
+				for(JoinColumnField joinField: EntityMetadata.get(relatedEntityClass).getJoinFields(entityClass)) {
+					joinFieldNames.add(joinField.getBaseIdColumn().getAttributeName());
+				}
+				if(!joinFieldNames.isEmpty()) {
+					plan.add(new CascadeStep(relatedDao, joinFieldNames));
+				}
+			}
+			cascadePlan = plan;
+		}
+		return cascadePlan;
+	}
+
+	/**
+	 * @param criteria
+	 * @return ids of the records filtered by criteria (all chunks).
+	 */
+	private List<Object> findIds(Criteria criteria) throws ModelException {
+		List<String> fields = new ArrayList<String>();
+		fields.add(ModelConstants.MAIN_TABLE_ALIAS.concat(".").concat(entityIdField.getColumnName()));
+
+		List<Object> ids = new ArrayList<Object>();
+		for(int i = 0; i < criteria.getInChunkCount(); i++) {
+			criteria.selectInChunk(i);
+			PreparedStatement statement = null;
+			ResultSet resultSet = null;
+			try {
+				statement = buildGetPreparedStatement(criteria, fields);
+				resultSet = statement.executeQuery();
+				while(resultSet.next()) {
+					ids.add(resultSet.getObject(1));
+				}
+			}
+			catch(Exception e) {
+				throw new ModelException(String.format("Occurred a problem in the find: %s", e.getMessage()), e);
+			}
+			finally {
+				helper().close(resultSet);
+				helper().close(statement);
+			}
+		}
+		return ids;
+	}
+
+	private PreparedStatement buildDeletePreparedStatement(Criteria criteria) throws SQLException {
+		PreparedStatement statement = helper().prepareStatement(dialect().buildDelete(tableName, criteria));
+		helper().addParameters(statement, criteria.getConditionsValues());
+		return statement;
+	}
+
+	/**
+	 * Load record with given id.
+	 */
+	public T loadById(Object id) throws ConnectionException, ModelException, InterceptorException {
+		if(id == null) {
+			return null;
+		}
+		return loadByCriteria(idCriteria(id));
+	}
+
+	/**
+	 * Load the records with the given ids (see {@link #loadByIds(Collection, Criteria)}).
+	 */
+	public Map<Long, T> loadByIds(Collection<?> ids) throws ConnectionException, ModelException, InterceptorException {
+		return loadByIds(ids, criteria());
+	}
+
+	/**
+	 * Load the records with the given ids with a single query (chunked when there are more ids than
+	 * ModelConstants.IN_MAX_PARAMETERS). Duplicated and null ids are ignored.
+	 * 
+	 * @param ids
+	 * @param criteria - fetches and selected columns (the id filter is added to a copy of it).
+	 * @return records by id in the order of the given ids (ids not found are absent).
+	 */
+	public Map<Long, T> loadByIds(Collection<?> ids, Criteria criteria) throws ConnectionException, ModelException, InterceptorException {
+		boolean success = true;
+		try {
+			openConnection();
+
+			if(interceptor != null) {
+				interceptor.setEntity(null);
+				interceptor.beforeLoad();
+			}
+
+			Map<Long, T> entities = findRecordsByIds(ids, criteria);
+
+			if(interceptor != null) {
+				interceptor.setEntities(new ArrayList<T>(entities.values()));
+			}
+			return entities;
+		}
+		catch(Exception e) {
+			success = false;
+			throw e;
+		}
+		finally {
+			if(interceptor != null) {
+				interceptor.afterLoad(success);
+				interceptor.setEntities(null);
+			}
+			closeConnection();
+		}
+	}
+
+	/**
+	 * Load record filtering by condition.
+	 * @param condition - structure: \@company.name = ? AND \@recordDate = ?<br>
+	 */
+	public T loadByCondition(String condition, Object... conditionValues) throws ConnectionException, ModelException, InterceptorException {
+		return loadByCriteria(conditionCriteria(condition, conditionValues));
+	}
+
+	/**
+	 * Load record filtering by criteria.
+	 */
+	public T loadByCriteria(Criteria criteria) throws ConnectionException, ModelException, InterceptorException {
+		checkNoInChunks(criteria, "load");
+		T entity = loadByCriteria(buildLimitedSql(criteria, true), criteria.getConditionsValues(), RowMapperFactory.getEntityMapper(entityClass, criteria));
+		if(entity != null) {
+			fetchRelationships(Collections.singletonList(entity), criteria);
+		}
+		return entity;
+	}
+
+	/**
+	 * Load record filtering by prepared criteria.
+	 * 
+	 * @param criteria
+	 * @param conditionValues - new values of the conditions (none to use the prepared values).
+	 */
+	public T loadByCriteria(PreparedCriteria<T> criteria, Object... conditionValues) throws ConnectionException, ModelException, InterceptorException {
+		return loadByCriteria(criteria.getLoadSql(), criteria.bind(conditionValues), criteria.getMapper());
+	}
+
+	private T loadByCriteria(String sql, List<Object> conditionValues, RowMapper<T> mapper) throws ConnectionException, ModelException, InterceptorException {
+		boolean success = true;
+		try {
+			openConnection();
+
+			if(interceptor != null) {
+				interceptor.beforeLoad();
+			}
+			
+			T entity = loadRecord(sql, conditionValues, mapper);
+
+			if(interceptor != null && success) {
+				interceptor.setEntity(entity);
+			}
+			return entity;
+		}
+		catch(Exception e) {
+			success = false;
+			throw e;
+		}
+		finally {
+			if(interceptor != null) {
+				interceptor.afterLoad(success);
+			}
+			closeConnection();
+		}
+	}
+
+	private T loadRecord(String sql, List<Object> conditionValues, RowMapper<T> mapper) throws ModelException {
 		PreparedStatement statement = null;
+		ResultSet resultSet = null;
 		try {
-			statement = buildDeletePreparedStatement(criteria);
-			return statement.executeUpdate();
+			statement = helper().buildFindPreparedStatement(sql, conditionValues);
+			resultSet = statement.executeQuery();
+			
+			T entity = null;
+			if(resultSet.next()) {
+				entity = mapper.map(resultSet);
+				entity.snapshot();
+			}
+			return entity;
 		}
 		catch(Exception e) {
-			throw new ModelException(String.format("Occurred a problem in the deletion: %s", e.getMessage()), e);
+			throw new ModelException(String.format("Occurred a problem in the load: %s", e.getMessage()), e);
+		}
+		finally {
+			helper().close(resultSet);
+			helper().close(statement);
+		}
+	}
+
+	/**
+	 * Find all records.
+	 */
+	public DataList<T> findAll() throws ConnectionException, ModelException, InterceptorException {
+		return findByCriteria(criteria());
+	}
+
+	/**
+	 * Find records filtering by condition.
+	 * @param condition - structure: \@company.name = ? AND \@recordDate = ?<br>
+	 */
+	public DataList<T> findByCondition(String condition, Object... conditionValues) throws ConnectionException, ModelException, InterceptorException {
+		return findByCriteria(conditionCriteria(condition, conditionValues));
+	}
+
+	/**
+	 * Find records filtering by criteria.
+	 */
+	public DataList<T> findByCriteria(Criteria criteria) throws ConnectionException, ModelException, InterceptorException {
+		try {
+			openConnection();
+			if(criteria.hasInChunks()) {
+				return findChunkedRecords(criteria);
+			}
+			return findRecords(criteria);
+		}
+		finally {
+			closeConnection();
+		}
+	}
+
+	/**
+	 * Find the records with the given ids (see {@link #findByIds(Collection, Criteria)}).
+	 */
+	public DataList<T> findByIds(Collection<?> ids) throws ConnectionException, ModelException {
+		return findByIds(ids, criteria());
+	}
+
+	/**
+	 * Find the records with the given ids with a single query (chunked when there are more ids than
+	 * ModelConstants.IN_MAX_PARAMETERS). Duplicated and null ids are ignored.
+	 * 
+	 * @param ids
+	 * @param criteria - fetches and selected columns (the id filter is added to a copy of it).
+	 * @return records in the order of the given ids (ids not found are absent).
+	 */
+	public DataList<T> findByIds(Collection<?> ids, Criteria criteria) throws ConnectionException, ModelException {
+		try {
+			openConnection();
+			return new DataList<T>(findRecordsByIds(ids, criteria).values());
+		}
+		finally {
+			closeConnection();
+		}
+	}
+
+	/**
+	 * Find records filtering by prepared criteria.
+	 * 
+	 * @param criteria
+	 * @param conditionValues - new values of the conditions (none to use the prepared values).
+	 */
+	public DataList<T> findByCriteria(PreparedCriteria<T> criteria, Object... conditionValues) throws ConnectionException, ModelException {
+		try {
+			openConnection();
+			return findRecords(criteria.getFindSql(), criteria.bind(conditionValues), criteria.getMapper());
 		}
 		finally {
-			helper().close(statement);
+			closeConnection();
 		}
 	}
 
 	/**
-	 * Delete the relationships.
+	 * Iterate all records (see {@link #iterate(Criteria)}).
 	 */
-	private void deleteRelated(List<T> entityList) throws ConnectionException, ModelException, InterceptorException {
-		if(entityList.isEmpty()) {
-			return;
-		}
-
-		String relatedDaoClassName;
-		ModelEntity<?> relatedEntity;
-		ModelDao<?> relatedDao;
-		List<JoinColumnField> joinFields;
-		Criteria criteria;
+	public ResultCursor<T> iterateAll() throws ConnectionException, ModelException {
+		return iterate(criteria());
+	}
 
-		for(Class<?> relatedEntityClass: getRelatedEntityClass()) {
-			relatedDaoClassName = basePackage.concat(".").concat(relatedEntityClass.getSimpleName()).concat("Dao");
-			relatedEntity = (ModelEntity<?>) ReflectionUtil.newInstance(relatedEntityClass);
-			relatedDao = (ModelDao<?>) ReflectionUtil.newInstance(relatedDaoClassName, Database.class, db);
-			joinFields = ModelUtil.getJoinFields(relatedEntity, entityClass);
+	/**
+	 * Iterate the records filtering by criteria without loading them in a list: the rows are streamed and mapped one
+	 * by one as the cursor is iterated. The connection is held until the cursor is closed.
+	 */
+	public ResultCursor<T> iterate(Criteria criteria) throws ConnectionException, ModelException {
+		checkNoInChunks(criteria, "iterate");
+		checkNoRelationshipFetch(criteria, "iterate");
+		return new ResultCursor<T>(helper(), dialect().buildFind(tableName, criteria), criteria.getConditionsValues(), RowMapperFactory.getEntityMapper(entityClass, criteria));
+	}
 
-			for(JoinColumnField joinField: joinFields) {
-				for(T entity: entityList) {
-					criteria = new Criteria(relatedEntity.getClass());
-					criteria.addFilter(joinField.getBaseIdColumn().getAttributeName(), entity.getId());
-					relatedDao.deleteByCriteria(criteria, true);
-				}
-			}
-		}
+	/**
+	 * Iterate the records filtering by prepared criteria (see {@link #iterate(Criteria)}).
+	 * 
+	 * @param criteria
+	 * @param conditionValues - new values of the conditions (none to use the prepared values).
+	 */
+	public ResultCursor<T> iterate(PreparedCriteria<T> criteria, Object... conditionValues) throws ConnectionException, ModelException {
+		return new ResultCursor<T>(helper(), criteria.getFindSql(), criteria.bind(conditionValues), criteria.getMapper());
 	}
 
-	private PreparedStatement buildDeletePreparedStatement(Criteria criteria) throws SQLException {
-		PreparedStatement statement = getConnection().prepareStatement(dialect().buildDelete(tableName, criteria));
-		helper().addParameters(statement, criteria.getConditionsValues());
-		return statement;
+	/**
+	 * Find records filtering by criteria, pushing each one to the handler instead of returning a list.
+	 * 
+	 * @return number of records handled.
+	 */
+	public int findByCriteria(Criteria criteria, RowHandler<T> handler) throws ConnectionException, ModelException {
+		return findByCriteria(criteria, handler, false);
 	}
 
 	/**
-	 * Load record with given id.
+	 * Find records filtering by criteria, pushing each one to the handler instead of returning a list.
+	 * 
+	 * @param criteria
+	 * @param handler
+	 * @param reuse - map all records into the same entity (flyweight), which is valid only inside the handler.
+	 * @return number of records handled.
 	 */
-	public T loadById(Object id) throws ConnectionException, ModelException, InterceptorException {
-		if(id == null) {
-			return null;
-		}
-		return loadByCriteria(idCriteria(id));
+	public int findByCriteria(Criteria criteria, RowHandler<T> handler, boolean reuse) throws ConnectionException, ModelException {
+		checkNoInChunks(criteria, "find handler");
+		checkNoRelationshipFetch(criteria, "find handler");
+		return helper().handle(dialect().buildFind(tableName, criteria), criteria.getConditionsValues(), RowMapperFactory.getEntityMapper(entityClass, criteria), handler, reuse);
 	}
 
 	/**
-	 * Load record filtering by condition.
-	 * @param condition - structure: \@company.name = ? AND \@recordDate = ?<br>
+	 * Find records filtering by prepared criteria, pushing each one to the handler (see
+	 * {@link #findByCriteria(Criteria, RowHandler, boolean)}).
+	 * 
+	 * @param criteria
+	 * @param handler
+	 * @param reuse
+	 * @param conditionValues - new values of the conditions (none to use the prepared values).
+	 * @return number of records handled.
 	 */
-	public T loadByCondition(String condition, Object... conditionValues) throws ConnectionException, ModelException, InterceptorException {
-		return loadByCriteria(conditionCriteria(condition, conditionValues));
+	public int findByCriteria(PreparedCriteria<T> criteria, RowHandler<T> handler, boolean reuse, Object... conditionValues) throws ConnectionException, ModelException {
+		return helper().handle(criteria.getFindSql(), criteria.bind(conditionValues), criteria.getMapper(), handler, reuse);
 	}
 
 	/**
-	 * Load record filtering by criteria.
+	 * Find records filtering by criteria and paging.
 	 */
-	public T loadByCriteria(Criteria criteria) throws ConnectionException, ModelException, InterceptorException {
-		boolean success = true;
+	public PagedList<T> findByCriteria(PagingCriteria pagingCriteria) throws ConnectionException, ModelException {
+		checkNoInChunks(pagingCriteria, "paging");
 		try {
 			openConnection();
 
-			if(interceptor != null) {
-				interceptor.beforeLoad();
+			if(pagingCriteria.isKeysetEnabled() && pagingCriteria.isPagingEnabled()) {
+				return findKeysetPage(pagingCriteria);
 			}
-			
-			T entity = loadRecord(criteria);
 
-			if(interceptor != null && success) {
-				interceptor.setEntity(entity);
+			// The has more total is estimated again on every page (it is known only up to the current page).
+			PagingHelper paging = pagingCriteria.getPaging();
+			DataList<T> records = findPageRecords(pagingCriteria, (paging.getTotalRows() == 0 || pagingCriteria.getCountStrategy() == Count.HAS_MORE));
+
+			// Remove the record fetched to know if there is a next page.
+			if(pagingCriteria.isPagingEnabled() && records.size() > paging.getPageSize()) {
+				records.remove(records.size() - 1);
 			}
-			return entity;
-		}
-		catch(Exception e) {
-			success = false;
-			throw e;
+
+			PagedList<T> entityList = new PagedList<T>(records);
+			entityList.setPaging(paging);
+			return entityList;
 		}
 		finally {
-			if(interceptor != null) {
-				interceptor.afterLoad(success);
-			}
 			closeConnection();
 		}
 	}
 
-	private T loadRecord(Criteria criteria) throws ModelException {
+	/**
+	 * Find the page after the keyset token (one more record is fetched to know if there is a next page).
+	 * 
+	 * @param pagingCriteria
+	 * @return
+	 * @throws ModelException
+	 */
+	private PagedList<T> findKeysetPage(PagingCriteria pagingCriteria) throws ModelException {
+		PagingHelper paging = pagingCriteria.getPaging();
+
+		// Total rows only on the first page (the following pages are continued by token).
+		DataList<T> records = findPageRecords(pagingCriteria, (!pagingCriteria.hasKeysetToken() && (paging.getTotalRows() == 0)));
+
+		String nextToken = null;
+		if(records.size() > paging.getPageSize()) {
+			records.remove(records.size() - 1);
+			nextToken = pagingCriteria.buildKeysetToken(records.get(records.size() - 1));
+		}
+
+		PagedList<T> entityList = new KeysetPagedList<T>(records, nextToken);
+		entityList.setPaging(paging);
+		return entityList;
+	}
+
+	/**
+	 * Find the records of the page and set the paging total rows by the count strategy of the criteria.
+	 * 
+	 * @param pagingCriteria
+	 * @param countRows - false if the total rows is already known.
+	 * @return
+	 * @throws ModelException
+	 */
+	private DataList<T> findPageRecords(PagingCriteria pagingCriteria, boolean countRows) throws ModelException {
+		int countStrategy = pagingCriteria.getCountStrategy();
+		if(countRows && (countStrategy == Count.WINDOW || countStrategy == Count.FOUND_ROWS)) {
+			return findCountingRecords(pagingCriteria);
+		}
+
+		DataList<T> records = findRecords(pagingCriteria);
+		if(countRows && !records.isEmpty()) {
+			PagingHelper paging = pagingCriteria.getPaging();
+			switch(countStrategy) {
+				case Count.HAS_MORE:
+					paging.setTotalRows(paging.getStartIndex() + records.size());
+					break;
+				case Count.APPROXIMATE:
+					paging.setTotalRows(countApproximateRows(pagingCriteria, paging.getStartIndex() + records.size()));
+					break;
+				case Count.CACHED:
+					paging.setTotalRows(countCachedRows(pagingCriteria));
+					break;
+				default:
+					paging.setTotalRows(countTotalRows(pagingCriteria));
+			}
+		}
+		return records;
+	}
+
+	/**
+	 * Find the records of the page counting the total rows in the same query (Count.WINDOW) or calculating them in
+	 * the query (Count.FOUND_ROWS).
+	 * 
+	 * @param pagingCriteria
+	 * @return
+	 * @throws ModelException
+	 */
+	private DataList<T> findCountingRecords(PagingCriteria pagingCriteria) throws ModelException {
+		boolean isWindow = (pagingCriteria.getCountStrategy() == Count.WINDOW);
+		String sql = isWindow ? dialect().buildFindWithTotal(tableName, pagingCriteria) : dialect().buildFindCalcFoundRows(tableName, pagingCriteria);
+
 		PreparedStatement statement = null;
 		ResultSet resultSet = null;
+		DataList<T> entityList = new DataList<T>();
+		int totalRows = 0;
 		try {
-			criteria.setResultLimit(1);
-
-			statement = buildFindPreparedStatement(criteria);
+			statement = helper().buildFindPreparedStatement(sql, pagingCriteria.getConditionsValues());
 			resultSet = statement.executeQuery();
-			
-			T entity = null;
-			FieldList fields = ModelUtil.getEntityFields(entityClass);
-			
-			if(resultSet.next()) {
-				entity = buildEntity();
 
-				ModelUtil.populateFields(entity, fields, resultSet);
-				if(criteria.hasJoin()) {
-					ModelUtil.populateJoinFields(entity, criteria.getJoinFields(), resultSet);
+			RowMapper<T> boundMapper = RowMapperFactory.getEntityMapper(entityClass, pagingCriteria).bind(resultSet);
+			while(resultSet.next()) {
+				if(isWindow && entityList.isEmpty()) {
+					totalRows = resultSet.getInt(SqlDialect.TOTAL_ROWS_COLUMN);
 				}
+				T entity = boundMapper.map(resultSet);
+				entity.snapshot();
+				entityList.add(entity);
 			}
-
-			return entity;
 		}
 		catch(Exception e) {
-			throw new ModelException(String.format("Occurred a problem in the load: %s", e.getMessage()), e);
+			throw new ModelException(String.format("Occurred a problem in the find: %s", e.getMessage()), e);
 		}
 		finally {
 			helper().close(resultSet);
 			helper().close(statement);
 		}
+
+		// The total is set only when some row was read (as the exact count), since an empty page has no total.
+		if(!entityList.isEmpty()) {
+			// The found rows must be read after the result set is closed (streamed results lock the connection).
+			if(!isWindow) {
+				totalRows = countRecords(dialect().buildFoundRows(), new ArrayList<Object>());
+			}
+			pagingCriteria.getPaging().setTotalRows(totalRows);
+		}
+		fetchRelationships(entityList, pagingCriteria);
+		return entityList;
 	}
 
 	/**
-	 * Find all records.
+	 * @param pagingCriteria
+	 * @return exact number of records ignoring the paging.
+	 * @throws ModelException
 	 */
-	public DataList<T> findAll() throws ConnectionException, ModelException, InterceptorException {
-		return findByCriteria(criteria());
+	private int countTotalRows(PagingCriteria pagingCriteria) throws ModelException {
+		boolean isPagingEnabled = pagingCriteria.isPagingEnabled();
+		pagingCriteria.disablePaging();
+		try {
+			return countRecords(dialect().buildCount(tableName, pagingCriteria), pagingCriteria.getConditionsValues());
+		}
+		finally {
+			if(isPagingEnabled) {
+				pagingCriteria.enablePaging();
+			}
+		}
 	}
 
 	/**
-	 * Find records filtering by condition.
-	 * @param condition - structure: \@company.name = ? AND \@recordDate = ?<br>
+	 * Table statistics are only used without conditions (the estimate of a filtered count would be meaningless).
+	 * 
+	 * @param pagingCriteria
+	 * @param fetchedRows - rows up to the current page (the minimum total).
+	 * @return
+	 * @throws ModelException
 	 */
-	public DataList<T> findByCondition(String condition, Object... conditionValues) throws ConnectionException, ModelException, InterceptorException {
-		return findByCriteria(conditionCriteria(condition, conditionValues));
+	private int countApproximateRows(PagingCriteria pagingCriteria, int fetchedRows) throws ModelException {
+		if(pagingCriteria.hasCondition()) {
+			return countTotalRows(pagingCriteria);
+		}
+		List<Object> parameters = new ArrayList<Object>();
+		parameters.add(tableName);
+		return Math.max(countRecords(dialect().buildApproximateCount(), parameters), fetchedRows);
 	}
 
 	/**
-	 * Find records filtering by criteria.
+	 * @param pagingCriteria
+	 * @return exact number of records (cached by the database for ModelConstants.COUNT_CACHE_TTL milliseconds).
+	 * @throws ModelException
 	 */
-	public DataList<T> findByCriteria(Criteria criteria) throws ConnectionException, ModelException, InterceptorException {
+	private int countCachedRows(PagingCriteria pagingCriteria) throws ModelException {
+		boolean isPagingEnabled = pagingCriteria.isPagingEnabled();
+		pagingCriteria.disablePaging();
 		try {
-			openConnection();
-			return findRecords(criteria);
+			String sql = dialect().buildCount(tableName, pagingCriteria);
+			List<Object> conditionValues = pagingCriteria.getConditionsValues();
+			SqlKey key = new SqlKey(sql, conditionValues.toArray());
+
+			BoundedCache<SqlKey, CachedCount> countCache = db.getCountCache();
+			CachedCount cachedCount = countCache.get(key);
+			if(cachedCount != null && !cachedCount.isExpired()) {
+				return cachedCount.getTotalRows();
+			}
+			if(cachedCount != null) {
+				countCache.remove(key);
+			}
+
+			int totalRows = countRecords(sql, conditionValues);
+			countCache.put(key, new CachedCount(totalRows, System.currentTimeMillis() + ModelConstants.COUNT_CACHE_TTL));
+			return totalRows;
 		}
 		finally {
-			closeConnection();
+			if(isPagingEnabled) {
+				pagingCriteria.enablePaging();
+			}
 		}
 	}
 
 	/**
-	 * Find records filtering by criteria and paging.
+	 * Find the records of each chunk of the IN filter, merged without repeated records.<br>
+	 * Orders and result limit are not supported, since they would apply only inside each chunk.
+	 * 
+	 * @param criteria
+	 * @return
+	 * @throws ModelException
 	 */
-	public PagedList<T> findByCriteria(PagingCriteria pagingCriteria) throws ConnectionException, ModelException {
+	private DataList<T> findChunkedRecords(Criteria criteria) throws ModelException {
+		if(criteria.hasOrder() || criteria.getResultLimit() != null) {
+			throw new RuntimeException(String.format("IN filter with more than %d values is not supported in ordered or limited finds (the order and the limit would apply inside each chunk).", ModelConstants.IN_MAX_PARAMETERS));
+		}
+		DataList<T> entityList = new DataList<T>();
+		Set<Long> ids = new HashSet<Long>();
 		try {
-			openConnection();
-
-			PagedList<T> entityList = new PagedList<T>(findRecords(pagingCriteria));
-			PagingHelper paging = pagingCriteria.getPaging();
-
-			// Set find total rows to paging helper.
-			if(!entityList.isEmpty() && (paging.getTotalRows() == 0)) {
-				pagingCriteria.disablePaging();
-				paging.setTotalRows(countByCriteria(pagingCriteria));
-				pagingCriteria.enablePaging();
+			for(int i = 0; i < criteria.getInChunkCount(); i++) {
+				criteria.selectInChunk(i);
+				for(T entity: findRecords(criteria)) {
+					if(entity.getId() == null || ids.add(entity.getId())) {
+						entityList.add(entity);
+					}
+				}
 			}
-
-			entityList.setPaging(paging);
 			return entityList;
 		}
 		finally {
-			closeConnection();
+			criteria.selectInChunk(0);
+		}
+	}
+
+	/**
+	 * @param ids
+	 * @param criteria
+	 * @return records by id in the order of the given ids.
+	 */
+	private Map<Long, T> findRecordsByIds(Collection<?> ids, Criteria criteria) throws ModelException {
+		Map<Long, T> entities = new LinkedHashMap<Long, T>();
+		for(Object id: ids) {
+			if(id != null) {
+				entities.put(((Number) id).longValue(), null);
+			}
+		}
+		if(entities.isEmpty()) {
+			return entities;
+		}
+
+		// The id filter is added to a copy, so the given criteria can be reused.
+		Criteria idsCriteria = criteria.copy().addFilter(entityIdField.getAttributeName(), Filter.IN, new ArrayList<Long>(entities.keySet()));
+		for(int i = 0; i < idsCriteria.getInChunkCount(); i++) {
+			idsCriteria.selectInChunk(i);
+			for(T entity: findRecords(idsCriteria)) {
+				// Keeps the position of the id.
+				entities.put(entity.getId(), entity);
+			}
 		}
+
+		// Remove the ids not found.
+		Iterator<T> iterator = entities.values().iterator();
+		while(iterator.hasNext()) {
+			if(iterator.next() == null) {
+				iterator.remove();
+			}
+		}
+		return entities;
 	}
 
 	private DataList<T> findRecords(Criteria criteria) throws ModelException {
+		DataList<T> entityList = findRecords(dialect().buildFind(tableName, criteria), criteria.getConditionsValues(), RowMapperFactory.getEntityMapper(entityClass, criteria));
+		fetchRelationships(entityList, criteria);
+		return entityList;
+	}
+
+	/**
+	 * Load the relationships that are not fetched by join (lazy references and collections) of the records found.
+	 */
+	private void fetchRelationships(List<T> entityList, Criteria criteria) throws ModelException {
+		attachLazyReferences(entityList, criteria);
+		fetchCollections(entityList, criteria);
+	}
+
+	/**
+	 * Populate the relationships not fetched with id only references (see Criteria.enableLazyFetch), one batch per
+	 * referenced type.
+	 */
+	private void attachLazyReferences(List<T> entityList, Criteria criteria) {
+		if(!criteria.isLazyFetchEnabled() || entityList.isEmpty()) {
+			return;
+		}
+
+		Map<Class<?>, LazyBatch> batches = new HashMap<Class<?>, LazyBatch>();
+		for(JoinColumnField joinField: metadata.getJoinFields()) {
+			Class<?> referenceClass = joinField.getTable().getType();
+			for(T entity: entityList) {
+				Object referenceId = joinField.getBaseIdColumn().getAccessor().get(entity);
+				if(referenceId == null || joinField.getBaseFieldAccessor().get(entity) != null) {
+					continue;
+				}
+				LazyBatch batch = batches.get(referenceClass);
+				if(batch == null) {
+					batch = new LazyBatch(helper(), dialect(), referenceClass);
+					batches.put(referenceClass, batch);
+				}
+				joinField.getBaseFieldAccessor().set(entity, batch.reference(((Number) referenceId).longValue()));
+			}
+		}
+	}
+
+	/**
+	 * Load the fetched collections (see Criteria.addCollectionFetch) with one IN query by collection (chunked if
+	 * necessary), grouping the elements by the id of the record they reference.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private void fetchCollections(List<T> entityList, Criteria criteria) throws ModelException {
+		if(!criteria.hasCollectionFetch() || entityList.isEmpty()) {
+			return;
+		}
+
+		for(String attributeName: criteria.getCollectionFetches()) {
+			JoinCollectionField joinCollection = metadata.getJoinCollection(attributeName);
+
+			// Records with the same id share the same list.
+			final LongMap<DataList<Object>> elementsById = new LongMap<DataList<Object>>(entityList.size());
+			List<Long> ids = new ArrayList<Long>();
+			for(T entity: entityList) {
+				if(entity.getId() == null) {
+					continue;
+				}
+				DataList<Object> elements = elementsById.get(entity.getId());
+				if(elements == null) {
+					elements = new DataList<Object>();
+					elementsById.put(entity.getId(), elements);
+					ids.add(entity.getId());
+				}
+				joinCollection.getAccessor().set(entity, elements);
+			}
+			if(ids.isEmpty()) {
+				continue;
+			}
+
+			EntityMetadata elementMetadata = EntityMetadata.get(joinCollection.getType());
+			final ColumnField referenceColumn = elementMetadata.getColumn(joinCollection.getMappedBy());
+			if(referenceColumn == null) {
+				throw new ModelException(String.format("Attribute %s (mapped by) not found in %s.", joinCollection.getMappedBy(), joinCollection.getType().getName()));
+			}
+
+			Criteria elementCriteria = new Criteria(joinCollection.getType());
+			elementCriteria.addFilter(joinCollection.getMappedBy(), Filter.IN, ids);
+			elementCriteria.addOrder(elementMetadata.getIdColumn().getAttributeName());
+			RowMapper elementMapper = RowMapperFactory.getEntityMapper((Class) joinCollection.getType(), elementCriteria);
+			RowHandler<Object> handler = new RowHandler<Object>() {
+				public void handle(Object element) {
+					Object referenceId = referenceColumn.getAccessor().get(element);
+					elementsById.get(((Number) referenceId).longValue()).add(element);
+				}
+			};
+			try {
+				for(int i = 0; i < elementCriteria.getInChunkCount(); i++) {
+					elementCriteria.selectInChunk(i);
+					helper().handle(dialect().buildFind(elementMetadata.getTableName(), elementCriteria), elementCriteria.getConditionsValues(), elementMapper, handler, false);
+				}
+			}
+			finally {
+				elementCriteria.selectInChunk(0);
+			}
+		}
+	}
+
+	private DataList<T> findRecords(String sql, List<Object> conditionValues, RowMapper<T> mapper) throws ModelException {
 		PreparedStatement statement = null;
 		ResultSet resultSet = null;
 		try {
-			statement = buildFindPreparedStatement(criteria);
+			statement = helper().buildFindPreparedStatement(sql, conditionValues);
 			resultSet = statement.executeQuery();
 			
 			DataList<T> entityList = new DataList<T>();
-			FieldList fields = ModelUtil.getEntityFields(entityClass);
-			
+			RowMapper<T> boundMapper = mapper.bind(resultSet);
 			while(resultSet.next()) {
-				T entity = buildEntity();
-
-				ModelUtil.populateFields(entity, fields, resultSet);
-				if(criteria.hasJoin()) {
-					ModelUtil.populateJoinFields(entity, criteria.getJoinFields(), resultSet);
-				}
-
+				T entity = boundMapper.map(resultSet);
+				entity.snapshot();
 				entityList.add(entity);
 			}
 			return entityList;
@@ -640,10 +1841,6 @@ public abstract class ModelDao<T extends ModelEntity<T>> implements ConnectionHa
 		}
 	}
 
-	private PreparedStatement buildFindPreparedStatement(Criteria criteria) throws SQLException {
-		return helper().buildFindPreparedStatement(dialect().buildFind(tableName, criteria), criteria.getConditionsValues());
-	}
-
 	public <X> X getById(String fieldName, Object id) throws ConnectionException, ModelException {
 		return getByCriteria(fieldName, idCriteria(id));
 	}
@@ -680,6 +1877,7 @@ public abstract class ModelDao<T extends ModelEntity<T>> implements ConnectionHa
 	}
 	
 	private Object[] get(String[] fieldsNames, Criteria criteria) throws ModelException {
+		checkNoInChunks(criteria, "get");
 		PreparedStatement statement = null;
 		ResultSet resultSet = null;
 		try {
@@ -711,7 +1909,7 @@ public abstract class ModelDao<T extends ModelEntity<T>> implements ConnectionHa
 	}	
 	
 	private PreparedStatement buildGetPreparedStatement(Criteria criteria, List<String> fields) throws SQLException {
-		PreparedStatement statement = getConnection().prepareStatement(dialect().buildGet(tableName, criteria, fields), TYPE_SCROLL_SENSITIVE, CONCUR_READ_ONLY);
+		PreparedStatement statement = helper().prepareStatement(dialect().buildGet(tableName, criteria, fields), TYPE_SCROLL_SENSITIVE, CONCUR_READ_ONLY);
 		statement.setFetchSize(Integer.MIN_VALUE);
 		helper().addParameters(statement, criteria.getConditionsValues());
 		return statement;
@@ -737,18 +1935,40 @@ public abstract class ModelDao<T extends ModelEntity<T>> implements ConnectionHa
 	public int countByCriteria(Criteria criteria) throws ConnectionException, ModelException {
 		try {
 			openConnection();
-			return countRecords(criteria);
+
+			int totalRows = 0;
+			for(int i = 0; i < criteria.getInChunkCount(); i++) {
+				criteria.selectInChunk(i);
+				totalRows += countRecords(dialect().buildCount(tableName, criteria), criteria.getConditionsValues());
+			}
+			return totalRows;
+		}
+		finally {
+			closeConnection();
+		}
+	}
+
+	/**
+	 * Get the number of records filtering by prepared criteria.
+	 * 
+	 * @param criteria
+	 * @param conditionValues - new values of the conditions (none to use the prepared values).
+	 */
+	public int countByCriteria(PreparedCriteria<T> criteria, Object... conditionValues) throws ConnectionException, ModelException {
+		try {
+			openConnection();
+			return countRecords(criteria.getCountSql(), criteria.bind(conditionValues));
 		}
 		finally {
 			closeConnection();
 		}
 	}
 
-	private int countRecords(Criteria criteria) throws ModelException {
+	private int countRecords(String sql, List<Object> conditionValues) throws ModelException {
 		PreparedStatement statement = null;
 		ResultSet resultSet = null;
 		try {
-			statement = buildCountPreparedStatement(criteria);
+			statement = buildCountPreparedStatement(sql, conditionValues);
 			resultSet = statement.executeQuery();
 			if(resultSet.next()) {
 				return resultSet.getInt(1);
@@ -764,10 +1984,10 @@ public abstract class ModelDao<T extends ModelEntity<T>> implements ConnectionHa
 		}
 	}
 
-	private PreparedStatement buildCountPreparedStatement(Criteria criteria) throws SQLException {
-		PreparedStatement statement = getConnection().prepareStatement(dialect().buildCount(tableName, criteria), TYPE_SCROLL_SENSITIVE, CONCUR_READ_ONLY);
+	private PreparedStatement buildCountPreparedStatement(String sql, List<Object> conditionValues) throws SQLException {
+		PreparedStatement statement = helper().prepareStatement(sql, TYPE_SCROLL_SENSITIVE, CONCUR_READ_ONLY);
 		statement.setFetchSize(Integer.MIN_VALUE);
-		helper().addParameters(statement, criteria.getConditionsValues());
+		helper().addParameters(statement, conditionValues);
 		return statement;
 	}
 
@@ -785,19 +2005,39 @@ public abstract class ModelDao<T extends ModelEntity<T>> implements ConnectionHa
 	public boolean existsByCriteria(Criteria criteria) throws ConnectionException, ModelException {
 		try {
 			openConnection();
-			return existsRecord(criteria);
+
+			for(int i = 0; i < criteria.getInChunkCount(); i++) {
+				criteria.selectInChunk(i);
+				if(existsRecord(buildLimitedSql(criteria, false), criteria.getConditionsValues())) {
+					return true;
+				}
+			}
+			return false;
+		}
+		finally {
+			closeConnection();
+		}
+	}
+
+	/**
+	 * @param criteria
+	 * @param conditionValues - new values of the conditions (none to use the prepared values).
+	 */
+	public boolean existsByCriteria(PreparedCriteria<T> criteria, Object... conditionValues) throws ConnectionException, ModelException {
+		try {
+			openConnection();
+			return existsRecord(criteria.getExistsSql(), criteria.bind(conditionValues));
 		}
 		finally {
 			closeConnection();
 		}
 	}
 
-	private boolean existsRecord(Criteria criteria) throws ModelException {
+	private boolean existsRecord(String sql, List<Object> conditionValues) throws ModelException {
 		PreparedStatement statement = null;
 		ResultSet resultSet = null;
 		try {
-			criteria.setResultLimit(1);
-			statement = buildExistsPreparedStatement(criteria);
+			statement = buildExistsPreparedStatement(sql, conditionValues);
 			resultSet = statement.executeQuery();
 			return resultSet.next();
 		}
@@ -810,13 +2050,74 @@ public abstract class ModelDao<T extends ModelEntity<T>> implements ConnectionHa
 		}
 	}
 
-	private PreparedStatement buildExistsPreparedStatement(Criteria criteria) throws SQLException {
-		PreparedStatement statement = getConnection().prepareStatement(dialect().buildExists(tableName, criteria), TYPE_SCROLL_SENSITIVE, CONCUR_READ_ONLY);
+	private PreparedStatement buildExistsPreparedStatement(String sql, List<Object> conditionValues) throws SQLException {
+		PreparedStatement statement = helper().prepareStatement(sql, TYPE_SCROLL_SENSITIVE, CONCUR_READ_ONLY);
 		statement.setFetchSize(Integer.MIN_VALUE);
-		helper().addParameters(statement, criteria.getConditionsValues());
+		helper().addParameters(statement, conditionValues);
 		return statement;
 	}
 
+	/**
+	 * Build the find (or exists) sql limited to one record without changing the criteria limit.
+	 * 
+	 * @param criteria
+	 * @param find - <code>true</code>: find sql<br>
+	 * <code>false</code>: exists sql
+	 * @return
+	 */
+	private String buildLimitedSql(Criteria criteria, boolean find) {
+		Integer resultLimit = criteria.getResultLimit();
+		try {
+			criteria.setResultLimit(1);
+			return find ? dialect().buildFind(tableName, criteria) : dialect().buildExists(tableName, criteria);
+		}
+		finally {
+			criteria.setResultLimit(resultLimit);
+		}
+	}
+
+	/**
+	 * Compile the criteria (sql statements, joins and row mapper) to be executed many times, from any thread, with
+	 * different condition values. Further changes to the criteria don't affect the prepared criteria.
+	 * 
+	 * @param criteria
+	 * @return
+	 */
+	public PreparedCriteria<T> prepare(Criteria criteria) {
+		checkNoInChunks(criteria, "prepared criteria");
+		checkNoRelationshipFetch(criteria, "prepared criteria");
+		return new PreparedCriteria<T>(entityClass,
+				dialect().buildFind(tableName, criteria),
+				buildLimitedSql(criteria, true),
+				dialect().buildCount(tableName, criteria),
+				buildLimitedSql(criteria, false),
+				RowMapperFactory.getEntityMapper(entityClass, criteria),
+				criteria.getConditionsValues());
+	}
+
+	/**
+	 * @param criteria
+	 * @param operation
+	 */
+	private void checkNoInChunks(Criteria criteria, String operation) {
+		if(criteria.hasInChunks()) {
+			throw new RuntimeException(String.format("IN filter with more than %d values is not supported in the %s.", ModelConstants.IN_MAX_PARAMETERS, operation));
+		}
+	}
+
+	/**
+	 * The lazy and collection fetches are applied to the list of found records, so they can't be used when the
+	 * records are streamed or the criteria is prepared.
+	 * 
+	 * @param criteria
+	 * @param operation
+	 */
+	private void checkNoRelationshipFetch(Criteria criteria, String operation) {
+		if(criteria.isLazyFetchEnabled() || criteria.hasCollectionFetch()) {
+			throw new RuntimeException(String.format("Lazy and collection fetches are not supported in the %s.", operation));
+		}
+	}
+
 	public Criteria criteria() {
 		return new Criteria(entityClass);
 	}
@@ -843,11 +2144,6 @@ public abstract class ModelDao<T extends ModelEntity<T>> implements ConnectionHa
 		return new PagingCriteria(entityClass, pageSize);
 	}
 
-	@SuppressWarnings("unchecked")
-	private T buildEntity() {
-		return (T) ReflectionUtil.newInstance(entityClass);
-	}
-	
 	public <D> D load(String sql, Class<D> resultClass, Object... parameters) throws ConnectionException, ModelException {
 		return find(sql, resultClass, Arrays.asList(parameters)).first();
 	}
@@ -936,6 +2232,34 @@ public abstract class ModelDao<T extends ModelEntity<T>> implements ConnectionHa
 		return helper().find(sql, builder, (List<Object>)parameters);
 	}
 
+	public <D> ResultCursor<D> iterate(String sql, Class<D> resultClass, Object... parameters) throws ConnectionException, ModelException {
+		return helper().iterate(sql, resultClass, Arrays.asList(parameters));
+	}
+
+	public <D> ResultCursor<D> iterate(SqlStatement sql, Class<D> resultClass) throws ConnectionException, ModelException {
+		return helper().iterate(sql, resultClass);
+	}
+
+	public <D> ResultCursor<D> iterate(String sql, ObjectBuilder<D> builder, Object... parameters) throws ConnectionException, ModelException {
+		return helper().iterate(sql, builder, Arrays.asList(parameters));
+	}
+
+	public <D> ResultCursor<D> iterate(SqlStatement sql, ObjectBuilder<D> builder) throws ConnectionException, ModelException {
+		return helper().iterate(sql, builder);
+	}
+
+	public <D> int find(SqlStatement sql, Class<D> resultClass, RowHandler<D> handler) throws ConnectionException, ModelException {
+		return helper().find(sql, resultClass, handler);
+	}
+
+	public <D> int find(SqlStatement sql, ObjectBuilder<D> builder, RowHandler<D> handler) throws ConnectionException, ModelException {
+		return helper().find(sql, builder, handler);
+	}
+
+	public <D> int find(SqlStatement sql, ObjectBuilder<D> builder, RowHandler<D> handler, boolean reuse) throws ConnectionException, ModelException {
+		return helper().find(sql, builder, handler, reuse);
+	}
+
 	public CachedRowSet find(String sql, Object... parameters) throws ConnectionException, ModelException {
 		return find(sql, Arrays.asList(parameters));
 	}
@@ -1018,4 +2342,21 @@ public abstract class ModelDao<T extends ModelEntity<T>> implements ConnectionHa
 	public Database getDatabase() {
 		return db;
 	}
+
+	/**
+	 * Related dao (cascade delete) with the join fields referencing the parent entity.
+	 */
+	private static final class CascadeStep {
+		private final ModelDao<?> dao;
+		private final List<String> joinFieldNames;
+
+		/**
+		 * @param dao
+		 * @param joinFieldNames
+		 */
+		private CascadeStep(ModelDao<?> dao, List<String> joinFieldNames) {
+			this.dao = dao;
+			this.joinFieldNames = joinFieldNames;
+		}
+	}
 }
\ No newline at end of file
@@ -1,13 +1,31 @@
 package com.ipfaffen.ovenbird.model;
 
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
 import com.ipfaffen.ovenbird.commons.ReflectionUtil;
+import com.ipfaffen.ovenbird.model.metadata.EntityMetadata;
 import com.ipfaffen.ovenbird.model.util.ColumnField;
+import com.ipfaffen.ovenbird.model.util.FieldList;
 
 /**
  * @author Isaias Pfaffenseller
  */
 public abstract class ModelEntity<T extends ModelEntity<T>> implements Comparable<T> {
 
+	/**
+	 * Column values when the entity was loaded from (or saved to) the database, so an update writes only the changed
+	 * columns (null if the entity is not tracked).
+	 */
+	private transient Object[] loadedValues;
+
+	/**
+	 * Batch that resolves the entity while it is an id only reference (see Criteria.enableLazyFetch).
+	 */
+	private transient volatile LazyBatch lazyBatch;
+
 	/**
 	 * @return
 	 */
@@ -33,6 +51,116 @@ public abstract class ModelEntity<T extends ModelEntity<T>> implements Comparabl
 		}
 	}
 
+	/**
+	 * @return true if the entity is tracked and some column was changed since it was loaded (or saved).
+	 */
+	public final boolean isChanged() {
+		FieldList changedFields = getChangedFields();
+		return changedFields != null && !changedFields.isEmpty();
+	}
+
+	/**
+	 * @return false if the entity is an id only (lazy) reference not resolved yet.
+	 */
+	public final boolean isResolved() {
+		return lazyBatch == null;
+	}
+
+	/**
+	 * Resolve the given lazy reference (along with the other pending references of its batch) if it was not resolved
+	 * yet. Relationship getters opt in to the lazy fetch with: return lazy(company);
+	 * 
+	 * @param reference
+	 * @return the given reference.
+	 */
+	protected final <R extends ModelEntity<?>> R lazy(R reference) {
+		if(reference != null) {
+			reference.resolve();
+		}
+		return reference;
+	}
+
+	/**
+	 * Load the entity if it is a lazy reference not resolved yet.
+	 */
+	final void resolve() {
+		LazyBatch batch = lazyBatch;
+		if(batch != null) {
+			batch.resolve(this);
+		}
+	}
+
+	/**
+	 * @param lazyBatch
+	 */
+	final void setLazyBatch(LazyBatch lazyBatch) {
+		this.lazyBatch = lazyBatch;
+	}
+
+	/**
+	 * Take a snapshot of the column values (see ModelConstants.DIRTY_TRACKING).
+	 */
+	final void snapshot() {
+		if(!ModelConstants.DIRTY_TRACKING) {
+			return;
+		}
+		List<ColumnField> columns = EntityMetadata.get(getClass()).getColumns();
+		Object[] values = new Object[columns.size()];
+		for(int i = 0; i < values.length; i++) {
+			values[i] = copyValue(columns.get(i).getAccessor().get(this));
+		}
+		loadedValues = values;
+	}
+
+	/**
+	 * @return fields (with their values) changed since the snapshot, or null if the entity is not tracked.
+	 */
+	final FieldList getChangedFields() {
+		if(loadedValues == null) {
+			return null;
+		}
+		List<ColumnField> columns = EntityMetadata.get(getClass()).getColumns();
+		FieldList fields = new FieldList();
+		for(int i = 0; i < loadedValues.length; i++) {
+			ColumnField column = columns.get(i);
+			Object value = column.getAccessor().get(this);
+			if(!isEqualValue(value, loadedValues[i])) {
+				ColumnField field = new ColumnField(column);
+				field.setValue(value);
+				fields.add(field);
+			}
+		}
+		return fields;
+	}
+
+	/**
+	 * Mutable values are copied so changes made in place are detected.
+	 * 
+	 * @param value
+	 * @return
+	 */
+	private Object copyValue(Object value) {
+		if(value instanceof Date) {
+			return ((Date) value).clone();
+		}
+		if(value instanceof byte[]) {
+			return ((byte[]) value).clone();
+		}
+		return value;
+	}
+
+	/**
+	 * @param value
+	 * @param loadedValue
+	 * @return
+	 */
+	private boolean isEqualValue(Object value, Object loadedValue) {
+		if(value instanceof byte[] && loadedValue instanceof byte[]) {
+			return Arrays.equals((byte[]) value, (byte[]) loadedValue);
+		}
+		return Objects.equals(value, loadedValue);
+	}
+
 	@Override
 	public int hashCode() {
 		return new StringBuilder(getClass().getName()).append("#").append(getId()).toString().hashCode();
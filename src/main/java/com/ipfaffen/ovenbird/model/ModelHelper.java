@@ -15,15 +15,17 @@ import javax.sql.rowset.RowSetProvider;
 
 import com.ipfaffen.ovenbird.commons.DataList;
 import com.ipfaffen.ovenbird.commons.PagingHelper;
-import com.ipfaffen.ovenbird.commons.ReflectionUtil;
 import com.ipfaffen.ovenbird.commons.exception.ValidationException;
 import com.ipfaffen.ovenbird.model.builder.ObjectBuilder;
+import com.ipfaffen.ovenbird.model.codec.TypeCodecRegistry;
 import com.ipfaffen.ovenbird.model.connection.Database;
 import com.ipfaffen.ovenbird.model.exception.ConnectionException;
 import com.ipfaffen.ovenbird.model.exception.ModelException;
+import com.ipfaffen.ovenbird.model.mapper.RowHandler;
+import com.ipfaffen.ovenbird.model.mapper.RowMapper;
+import com.ipfaffen.ovenbird.model.mapper.RowMapperFactory;
 import com.ipfaffen.ovenbird.model.transaction.ResultTransaction;
 import com.ipfaffen.ovenbird.model.transaction.Transaction;
-import com.ipfaffen.ovenbird.model.util.FieldList;
 
 /**
  * @author Isaias Pfaffenseller
@@ -67,13 +69,10 @@ public class ModelHelper {
 			resultSet = statement.executeQuery();
 			DataList<D> resultList = new DataList<D>();
 
-			if(ReflectionUtil.newInstance(resultClass) instanceof ModelDto) {
-				Class<? extends ModelDto<?>> dtoClass = (Class<? extends ModelDto<?>>) resultClass;
-				FieldList fields = ModelUtil.getDtoFields(dtoClass);
+			if(ModelDto.class.isAssignableFrom(resultClass)) {
+				RowMapper<? extends ModelDto<?>> mapper = RowMapperFactory.getDtoMapper((Class<? extends ModelDto<?>>) resultClass).bind(resultSet);
 				while(resultSet.next()) {
-					D dto = (D) ReflectionUtil.newInstance(dtoClass);
-					ModelUtil.populateFields((ModelDto<?>) dto, fields, resultSet);
-					resultList.add(dto);
+					resultList.add((D) mapper.map(resultSet));
 				}
 				return resultList;
 			}
@@ -135,6 +134,177 @@ public class ModelHelper {
 		}
 	}
 
+	public <D> ResultCursor<D> iterate(String sql, Class<D> resultClass, Object... parameters) throws ConnectionException, ModelException {
+		return iterate(sql, resultClass, Arrays.asList(parameters));
+	}
+
+	public <D> ResultCursor<D> iterate(SqlStatement sql, Class<D> resultClass) throws ConnectionException, ModelException {
+		return iterate(sql.toString(), resultClass, sql.getParameters());
+	}
+
+	/**
+	 * Streamed find: the rows are mapped as the returned cursor is iterated (it must be closed).
+	 */
+	public <D> ResultCursor<D> iterate(String sql, Class<D> resultClass, List<Object> parameters) throws ConnectionException, ModelException {
+		return new ResultCursor<D>(this, sql, parameters, getResultMapper(resultClass));
+	}
+
+	public <D> ResultCursor<D> iterate(String sql, ObjectBuilder<D> builder, Object... parameters) throws ConnectionException, ModelException {
+		return iterate(sql, builder, Arrays.asList(parameters));
+	}
+
+	public <D> ResultCursor<D> iterate(SqlStatement sql, ObjectBuilder<D> builder) throws ConnectionException, ModelException {
+		return iterate(sql.toString(), builder, sql.getParameters());
+	}
+
+	/**
+	 * Streamed find: the rows are built as the returned cursor is iterated (it must be closed).
+	 */
+	public <D> ResultCursor<D> iterate(String sql, ObjectBuilder<D> builder, List<Object> parameters) throws ConnectionException, ModelException {
+		return new ResultCursor<D>(this, sql, parameters, getBuilderMapper(builder));
+	}
+
+	public <D> int find(SqlStatement sql, Class<D> resultClass, RowHandler<D> handler) throws ConnectionException, ModelException {
+		return find(sql.toString(), resultClass, sql.getParameters(), handler, false);
+	}
+
+	/**
+	 * Find pushing each row to the handler instead of returning a list.
+	 * 
+	 * @param sql
+	 * @param resultClass - dto or single column type.
+	 * @param parameters
+	 * @param handler
+	 * @param reuse - map all rows into the same dto (only valid inside the handler).
+	 * @return number of rows handled.
+	 */
+	public <D> int find(String sql, Class<D> resultClass, List<Object> parameters, RowHandler<D> handler, boolean reuse) throws ConnectionException, ModelException {
+		return handle(sql, parameters, getResultMapper(resultClass), handler, reuse);
+	}
+
+	public <D> int find(SqlStatement sql, ObjectBuilder<D> builder, RowHandler<D> handler) throws ConnectionException, ModelException {
+		return find(sql.toString(), builder, sql.getParameters(), handler, false);
+	}
+
+	public <D> int find(SqlStatement sql, ObjectBuilder<D> builder, RowHandler<D> handler, boolean reuse) throws ConnectionException, ModelException {
+		return find(sql.toString(), builder, sql.getParameters(), handler, reuse);
+	}
+
+	/**
+	 * Find pushing each built row to the handler instead of returning a list.
+	 * 
+	 * @param sql
+	 * @param builder
+	 * @param parameters
+	 * @param handler
+	 * @param reuse - build all rows into the same object (only valid inside the handler).
+	 * @return number of rows handled.
+	 */
+	public <D> int find(String sql, ObjectBuilder<D> builder, List<Object> parameters, RowHandler<D> handler, boolean reuse) throws ConnectionException, ModelException {
+		return handle(sql, parameters, getBuilderMapper(builder), handler, reuse);
+	}
+
+	/**
+	 * Stream the rows of the sql, pushing each mapped row to the handler.
+	 * 
+	 * @param sql
+	 * @param parameters
+	 * @param mapper
+	 * @param handler
+	 * @param reuse - map all rows into the same object (entities are not snapshot in this case).
+	 * @return number of rows handled.
+	 */
+	<D> int handle(String sql, List<Object> parameters, RowMapper<D> mapper, RowHandler<D> handler, boolean reuse) throws ConnectionException, ModelException {
+		PreparedStatement statement = null;
+		ResultSet resultSet = null;
+		try {
+			openConnection();
+
+			statement = buildFindPreparedStatement(sql, parameters);
+			resultSet = statement.executeQuery();
+
+			RowMapper<D> boundMapper = mapper.bind(resultSet);
+			D reused = null;
+			int rowCount = 0;
+			while(resultSet.next()) {
+				D object = boundMapper.map(resultSet, reused);
+				if(reuse) {
+					reused = object;
+				}
+				else if(object instanceof ModelEntity) {
+					((ModelEntity<?>) object).snapshot();
+				}
+				handler.handle(object);
+				rowCount++;
+			}
+			return rowCount;
+		}
+		catch(Exception e) {
+			throw new ModelException(String.format("Occurred a problem in the find: %s", e.getMessage()), e);
+		}
+		finally {
+			close(resultSet);
+			close(statement);
+			closeConnection();
+		}
+	}
+
+	/**
+	 * @param resultClass - dto or single column type.
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	private <D> RowMapper<D> getResultMapper(final Class<D> resultClass) {
+		if(ModelDto.class.isAssignableFrom(resultClass)) {
+			return (RowMapper<D>) RowMapperFactory.getDtoMapper((Class<? extends ModelDto<?>>) resultClass);
+		}
+		return new RowMapper<D>() {
+			public D map(ResultSet resultSet) throws SQLException {
+				return resultSet.getObject(1, resultClass);
+			}
+
+			public D map(ResultSet resultSet, D object) throws SQLException {
+				return map(resultSet);
+			}
+
+			public RowMapper<D> bind(ResultSet resultSet) {
+				return this;
+			}
+		};
+	}
+
+	/**
+	 * @param builder
+	 * @return
+	 */
+	private <D> RowMapper<D> getBuilderMapper(final ObjectBuilder<D> builder) {
+		return new RowMapper<D>() {
+			public D map(ResultSet resultSet) throws SQLException {
+				return map(resultSet, null);
+			}
+
+			public D map(ResultSet resultSet, D object) throws SQLException {
+				try {
+					if(object == null) {
+						return builder.build(resultSet);
+					}
+					builder.build(resultSet, object);
+					return object;
+				}
+				catch(SQLException e) {
+					throw e;
+				}
+				catch(Exception e) {
+					throw new SQLException(e.getMessage(), e);
+				}
+			}
+
+			public RowMapper<D> bind(ResultSet resultSet) {
+				return this;
+			}
+		};
+	}
+
 	public CachedRowSet find(String sql, Object... parameters) throws ConnectionException, ModelException {
 		return find(sql, Arrays.asList(parameters));
 	}
@@ -180,7 +350,7 @@ public class ModelHelper {
 	}
 	
 	protected PreparedStatement buildFindPreparedStatement(String sql, List<Object> parameters) throws SQLException {
-		PreparedStatement statement = getConnection().prepareStatement(sql, TYPE_SCROLL_SENSITIVE, CONCUR_READ_ONLY);
+		PreparedStatement statement = prepareStatement(sql, TYPE_SCROLL_SENSITIVE, CONCUR_READ_ONLY);
 		statement.setFetchSize(Integer.MIN_VALUE);
 		if(parameters != null) {
 			addParameters(statement, parameters);
@@ -194,7 +364,7 @@ public class ModelHelper {
 		try {
 			openConnection();
 			
-			statement = getConnection().prepareStatement(countSql, TYPE_SCROLL_SENSITIVE, CONCUR_READ_ONLY);
+			statement = prepareStatement(countSql, TYPE_SCROLL_SENSITIVE, CONCUR_READ_ONLY);
 			statement.setFetchSize(Integer.MIN_VALUE);
 
 			resultSet = statement.executeQuery();
@@ -222,7 +392,7 @@ public class ModelHelper {
 		try {
 			openConnection();
 			
-			statement = getConnection().prepareStatement(sql.toString());
+			statement = prepareStatement(sql.toString());
 			addParameters(statement, sql.getParameters());
 			return statement.executeUpdate();
 		}
@@ -297,7 +467,7 @@ public class ModelHelper {
 	 */
 	public void addParameters(PreparedStatement preparedStatement, List<Object> parameters, int indexFrom) throws SQLException {
 		for(int i = 0; i < parameters.size(); i++) {
-			preparedStatement.setObject(indexFrom + i, parameters.get(i));
+			TypeCodecRegistry.bind(preparedStatement, indexFrom + i, parameters.get(i));
 		}
 	}
 
@@ -308,12 +478,30 @@ public class ModelHelper {
 		addParameters(preparedStatement, parameters, 1);
 	}
 
+	/**
+	 * Prepare statement through the statement cache of the connection (give it back with {@link #close(PreparedStatement)}).
+	 */
+	public PreparedStatement prepareStatement(String sql) throws SQLException {
+		return db.prepareStatement(sql);
+	}
+
+	/**
+	 * @see #prepareStatement(String)
+	 */
+	public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+		return db.prepareStatement(sql, autoGeneratedKeys);
+	}
+
+	/**
+	 * @see #prepareStatement(String)
+	 */
+	public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+		return db.prepareStatement(sql, resultSetType, resultSetConcurrency);
+	}
+
 	public void close(PreparedStatement statement) {
-		try {
-			if(statement != null)
-				statement.close();
-		}
-		catch(Exception e) {
+		if(statement != null) {
+			db.releaseStatement(statement);
 		}
 	}
 
@@ -1,5 +1,7 @@
 package com.ipfaffen.ovenbird.model;
 
+import java.util.List;
+
 import com.ipfaffen.ovenbird.model.connection.Database;
 import com.ipfaffen.ovenbird.model.exception.InterceptorException;
 
@@ -10,6 +12,7 @@ public abstract class ModelInterceptor<T extends ModelEntity<T>> {
 	
 	private Database db;
 	private T entity;
+	private List<T> entities;
 
 	/**
 	 * @param database
@@ -107,4 +110,21 @@ public abstract class ModelInterceptor<T extends ModelEntity<T>> {
 	public T getEntity() {
 		return entity;
 	}
+
+	/**
+	 * @param entities
+	 */
+	protected void setEntities(List<T> entities) {
+		this.entities = entities;
+	}
+
+	/**
+	 * Entities of the current batch (the interceptor is called once per batch, see ModelDao.insertAll), null if the
+	 * operation is not a batch.
+	 * 
+	 * @return
+	 */
+	public List<T> getEntities() {
+		return entities;
+	}
 }
\ No newline at end of file
@@ -12,9 +12,7 @@ import java.util.Map;
 
 import com.ipfaffen.ovenbird.commons.NameValue;
 import com.ipfaffen.ovenbird.commons.ReflectionUtil;
-import com.ipfaffen.ovenbird.model.annotation.Column;
-import com.ipfaffen.ovenbird.model.annotation.JoinColumn;
-import com.ipfaffen.ovenbird.model.annotation.Table;
+import com.ipfaffen.ovenbird.model.metadata.EntityMetadata;
 import com.ipfaffen.ovenbird.model.util.ColumnField;
 import com.ipfaffen.ovenbird.model.util.FieldList;
 import com.ipfaffen.ovenbird.model.util.JoinColumnField;
@@ -32,15 +30,32 @@ public class ModelUtil {
 	 * @throws SQLException
 	 */
 	public static void populateJoinFields(ModelEntity<?> entity, Collection<JoinColumnField> joinFields, ResultSet resultSet) throws SQLException {
+		List<List<ColumnField>> joinColumns = new ArrayList<List<ColumnField>>();
+		for(JoinColumnField joinField: joinFields) {
+			joinColumns.add(EntityMetadata.get(joinField.getTable().getType()).getColumns());
+		}
+		populateJoinFields(entity, joinFields, joinColumns, resultSet);
+	}
+
+	/**
+	 * @param entity
+	 * @param joinFields
+	 * @param joinColumns - columns read of each join field.
+	 * @param resultSet
+	 * @throws SQLException
+	 */
+	public static void populateJoinFields(ModelEntity<?> entity, Collection<JoinColumnField> joinFields, List<List<ColumnField>> joinColumns, ResultSet resultSet) throws SQLException {
 		ModelEntity<?>[] baseEntity = new ModelEntity<?>[ModelConstants.JOIN_MAX_DEPTH];
 		baseEntity[0] = entity;
 
+		int joinIndex = 0;
 		for(JoinColumnField joinField: joinFields) {
-			ModelEntity<?> referenceEntity = (ModelEntity<?>) ReflectionUtil.newInstance(joinField.getTable().getType());
+			Class<?> referenceClass = joinField.getTable().getType();
+			ModelEntity<?> referenceEntity = (ModelEntity<?>) ReflectionUtil.newInstance(referenceClass);
 
 			populateFields(
 					referenceEntity, 
-					getEntityFields(referenceEntity), 
+					joinColumns.get(joinIndex++), 
 					resultSet, 
 					joinField.getAlias());
 
@@ -49,10 +64,7 @@ public class ModelUtil {
 				continue;
 			}
 
-			ReflectionUtil.setFieldValue(
-					baseEntity[joinField.getDepthLevel()], 
-					joinField.getBaseField(), 
-					referenceEntity);
+			joinField.getBaseFieldAccessor().set(baseEntity[joinField.getDepthLevel()], referenceEntity);
 
 			baseEntity[joinField.getDepthLevel() + 1] = referenceEntity;
 		}
@@ -77,7 +89,7 @@ public class ModelUtil {
 	 */
 	public static void populateFields(ModelEntity<?> entity, List<ColumnField> fields, ResultSet resultSet, String alias) throws SQLException {
 		for(ColumnField field: fields) {
-			ReflectionUtil.setFieldValue(entity, field.getDeclaredField(), resultSet.getObject(alias + "." + field.getColumnName()));
+			field.getAccessor().set(entity, resultSet.getObject(alias + "." + field.getColumnName()));
 		}
 	}
 	
@@ -87,48 +99,36 @@ public class ModelUtil {
 	 */
 	public static FieldList getEntityFields(ModelEntity<?> entity) {
 		FieldList fields = new FieldList();
-		for(Field declaredField: entity.getClass().getDeclaredFields()) {
-			declaredField.setAccessible(true);
-
-			Column column = (Column) declaredField.getAnnotation(Column.class);
-			if(column != null) {
-				ColumnField field = new ColumnField();
-				field.setDeclaredField(declaredField);
-				field.setAttributeName(declaredField.getName());
-				field.setColumnName(column.name());
-				field.setValue(ReflectionUtil.getFieldValue(entity, declaredField));
-				field.setType(declaredField.getType());
-				field.setGenericType(declaredField.getGenericType().toString());
-				field.setIsId(column.isKey());
-				fields.add(field);
-			}
+		for(ColumnField column: EntityMetadata.get(entity.getClass()).getColumns()) {
+			ColumnField field = new ColumnField(column);
+			field.setValue(column.getAccessor().get(entity));
+			fields.add(field);
 		}
 		return fields;
 	}
 	
 	/**
-	 * @param entityClass
-	 * @return
+	 * @param entity
+	 * @param fieldNames
+	 * @return given fields with their values.
 	 */
-	public static FieldList getEntityFields(Class<? extends ModelEntity<?>> entityClass) {
+	public static FieldList getEntityFields(ModelEntity<?> entity, String... fieldNames) {
 		FieldList fields = new FieldList();
-		for(Field declaredField: entityClass.getDeclaredFields()) {
-			declaredField.setAccessible(true);
-
-			Column column = (Column) declaredField.getAnnotation(Column.class);
-			if(column != null) {
-				ColumnField field = new ColumnField();
-				field.setDeclaredField(declaredField);
-				field.setAttributeName(declaredField.getName());
-				field.setColumnName(column.name());
-				field.setType(declaredField.getType());
-				field.setGenericType(declaredField.getGenericType().toString());
-				field.setIsId(column.isKey());
-				fields.add(field);
-			}
+		for(String fieldName: fieldNames) {
+			ColumnField field = getField(entity.getClass(), fieldName);
+			field.setValue(field.getAccessor().get(entity));
+			fields.add(field);
 		}
 		return fields;
 	}
+
+	/**
+	 * @param entityClass
+	 * @return
+	 */
+	public static FieldList getEntityFields(Class<? extends ModelEntity<?>> entityClass) {
+		return copyFields(EntityMetadata.get(entityClass).getColumns());
+	}
 	
 	/**
 	 * @param dto
@@ -138,7 +138,7 @@ public class ModelUtil {
 	 */
 	public static void populateFields(ModelDto<?> dto, List<ColumnField> fields, ResultSet resultSet) throws SQLException {
 		for(ColumnField field: fields) {
-			ReflectionUtil.setFieldValue(dto, field.getDeclaredField(), resultSet.getObject(field.getColumnName()));
+			field.getAccessor().set(dto, resultSet.getObject(field.getColumnName()));
 		}
 	}
 	
@@ -147,19 +147,17 @@ public class ModelUtil {
 	 * @return
 	 */
 	public static FieldList getDtoFields(Class<? extends ModelDto<?>> dtoClass) {
+		return copyFields(EntityMetadata.get(dtoClass).getColumns());
+	}
+
+	/**
+	 * @param columns
+	 * @return
+	 */
+	private static FieldList copyFields(List<ColumnField> columns) {
 		FieldList fields = new FieldList();
-		for(Field declaredField: dtoClass.getDeclaredFields()) {
-			declaredField.setAccessible(true);
-			
-			Column column = (Column) declaredField.getAnnotation(Column.class);
-			if(column != null) {
-				ColumnField field = new ColumnField();
-				field.setDeclaredField(declaredField);
-				field.setAttributeName(declaredField.getName());
-				field.setColumnName(column.name());
-				field.setType(declaredField.getType());
-				fields.add(field);
-			}
+		for(ColumnField column: columns) {
+			fields.add(new ColumnField(column));
 		}
 		return fields;
 	}
@@ -206,12 +204,11 @@ public class ModelUtil {
 	 * @return
 	 */
 	public static ColumnField getField(Class<?> entityClass, String fieldName) {
-		try {
-			return getField(entityClass.getDeclaredField(fieldName));
-		}
-		catch(Exception e) {
+		ColumnField column = EntityMetadata.get(entityClass).getColumn(fieldName);
+		if(column == null) {
 			throw new RuntimeException("Invalid field.");
 		}
+		return new ColumnField(column);
 	}
 
 	/**
@@ -221,22 +218,7 @@ public class ModelUtil {
 	 * @return
 	 */
 	public static ColumnField getField(Field declaredField) {
-		try {
-			declaredField.setAccessible(true);
-
-			Column column = (Column) declaredField.getAnnotation(Column.class);
-			ColumnField field = new ColumnField();
-			field.setDeclaredField(declaredField);
-			field.setAttributeName(declaredField.getName());
-			field.setColumnName(column.name());
-			field.setType(declaredField.getType());
-			field.setGenericType(declaredField.getGenericType().toString());
-			field.setIsId(column.isKey());
-			return field;
-		}
-		catch(Exception e) {
-			throw new RuntimeException("Invalid field.");
-		}
+		return getField(declaredField.getDeclaringClass(), declaredField.getName());
 	}
 
 	/**
@@ -246,23 +228,13 @@ public class ModelUtil {
 	 * @return
 	 */
 	public static ColumnField getIdField(ModelEntity<?> entity) {
-		for(Field declaredField: entity.getClass().getDeclaredFields()) {
-			declaredField.setAccessible(true);
-
-			Column column = (Column) declaredField.getAnnotation(Column.class);
-			if(column != null && column.isKey()) {
-				ColumnField field = new ColumnField();
-				field.setDeclaredField(declaredField);
-				field.setAttributeName(declaredField.getName());
-				field.setColumnName(column.name());
-				field.setValue(ReflectionUtil.getFieldValue(entity, declaredField));
-				field.setType(declaredField.getType());
-				field.setGenericType(declaredField.getGenericType().toString());
-				field.setIsId(true);
-				return field;
-			}
+		ColumnField column = EntityMetadata.get(entity.getClass()).getIdColumn();
+		if(column == null) {
+			return null;
 		}
-		return null;
+		ColumnField field = new ColumnField(column);
+		field.setValue(column.getAccessor().get(entity));
+		return field;
 	}
 
 	/**
@@ -272,22 +244,8 @@ public class ModelUtil {
 	 * @return
 	 */
 	public static ColumnField getIdField(Class<?> entityClass) {
-		for(Field declaredField: entityClass.getDeclaredFields()) {
-			declaredField.setAccessible(true);
-
-			Column column = (Column) declaredField.getAnnotation(Column.class);
-			if(column != null && column.isKey()) {
-				ColumnField field = new ColumnField();
-				field.setDeclaredField(declaredField);
-				field.setAttributeName(declaredField.getName());
-				field.setColumnName(column.name());
-				field.setType(declaredField.getType());
-				field.setGenericType(declaredField.getGenericType().toString());
-				field.setIsId(true);
-				return field;
-			}
-		}
-		return null;
+		ColumnField column = EntityMetadata.get(entityClass).getIdColumn();
+		return (column == null) ? null : new ColumnField(column);
 	}
 
 	/**
@@ -297,11 +255,7 @@ public class ModelUtil {
 	 * @return
 	 */
 	public static TableEntity getTableEntity(Class<?> entityClass) {
-		Table table = (Table) entityClass.getAnnotation(Table.class);
-		TableEntity tableEntity = new TableEntity();
-		tableEntity.setTableName(table.name());
-		tableEntity.setType(entityClass);
-		return tableEntity;
+		return EntityMetadata.get(entityClass).getTable();
 	}
 
 	/**
@@ -311,7 +265,7 @@ public class ModelUtil {
 	 * @return
 	 */
 	public static String getTableName(Class<?> entityClass) {
-		return ((Table) entityClass.getAnnotation(Table.class)).name();
+		return EntityMetadata.get(entityClass).getTableName();
 	}
 
 	/**
@@ -322,12 +276,7 @@ public class ModelUtil {
 	 * @return
 	 */
 	public static String getColumnName(Class<?> entityClass, String fieldName) {
-		try {
-			return ((Column) entityClass.getDeclaredField(fieldName).getAnnotation(Column.class)).name();
-		}
-		catch(Exception e) {
-			throw new RuntimeException("Invalid field.");
-		}
+		return EntityMetadata.get(entityClass).getColumnName(fieldName);
 	}
 
 	/**
@@ -338,29 +287,7 @@ public class ModelUtil {
 	 * @return
 	 */
 	public static JoinColumnField getJoinField(Class<?> entityClass, String fieldName) {
-		try {
-			Field baseField = entityClass.getDeclaredField(fieldName);
-			baseField.setAccessible(true);
-			
-			JoinColumn joinColumn = (JoinColumn) baseField.getAnnotation(JoinColumn.class);
-
-			TableEntity baseTable = getTableEntity(entityClass);
-			ColumnField baseIdColumn = getField(entityClass, joinColumn.name());
-
-			TableEntity referenceTable = getTableEntity(baseField.getType());
-			ColumnField referenceIdColumn = getIdField(baseField.getType());
-
-			JoinColumnField joinColumnField = new JoinColumnField();
-			joinColumnField.setBaseTable(baseTable);
-			joinColumnField.setBaseIdColumn(baseIdColumn);
-			joinColumnField.setBaseField(baseField);
-			joinColumnField.setTable(referenceTable);
-			joinColumnField.setIdColumn(referenceIdColumn);
-			return joinColumnField;
-		}
-		catch(Exception e) {
-			throw new RuntimeException("Invalid join field.");
-		}
+		return new JoinColumnField(EntityMetadata.get(entityClass).getJoinField(fieldName));
 	}
 
 	/**
@@ -368,15 +295,8 @@ public class ModelUtil {
 	 */
 	public static List<JoinColumnField> getJoinFields(ModelEntity<?> entity, Class<?> fieldType) {
 		List<JoinColumnField> joinFields = new ArrayList<JoinColumnField>();
-
-		for(Field declaredField: entity.getClass().getDeclaredFields()) {
-			JoinColumn join = (JoinColumn) declaredField.getAnnotation(JoinColumn.class);
-			if(join != null) {
-				if(declaredField.getType() != fieldType) {
-					continue;
-				}
-				joinFields.add(getJoinField(entity.getClass(), declaredField.getName()));
-			}
+		for(JoinColumnField joinField: EntityMetadata.get(entity.getClass()).getJoinFields(fieldType)) {
+			joinFields.add(new JoinColumnField(joinField));
 		}
 		return joinFields;
 	}
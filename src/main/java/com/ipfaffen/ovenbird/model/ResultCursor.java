@@ -0,0 +1,135 @@
+package com.ipfaffen.ovenbird.model;
+
+import java.io.Closeable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.ipfaffen.ovenbird.model.exception.ConnectionException;
+import com.ipfaffen.ovenbird.model.exception.ModelException;
+import com.ipfaffen.ovenbird.model.mapper.RowMapper;
+
+/**
+ * Forward only cursor over a streamed result set: the rows are mapped one by one as they are read, so the result is
+ * never materialized in memory (see ModelDao.iterate and ModelHelper.iterate).<br>
+ * The connection is held open until the cursor is closed (or all rows are read), so it must be closed in a finally
+ * block (or try-with-resources). While the rows are streamed no other statement can be executed on the same
+ * connection.<br>
+ * It is iterable only once.
+ *
+ * @author Isaias Pfaffenseller
+ */
+public class ResultCursor<T> implements Iterator<T>, Iterable<T>, Closeable {
+
+	private ModelHelper helper;
+	private PreparedStatement statement;
+	private ResultSet resultSet;
+	private RowMapper<T> mapper;
+
+	private boolean fetched;
+	private boolean closed;
+	private int rowCount;
+
+	/**
+	 * @param helper
+	 * @param sql
+	 * @param parameters
+	 * @param mapper
+	 */
+	ResultCursor(ModelHelper helper, String sql, List<Object> parameters, RowMapper<T> mapper) throws ConnectionException, ModelException {
+		this.helper = helper;
+		helper.openConnection();
+		try {
+			statement = helper.buildFindPreparedStatement(sql, parameters);
+			resultSet = statement.executeQuery();
+			this.mapper = mapper.bind(resultSet);
+		}
+		catch(Exception e) {
+			close();
+			throw new ModelException(String.format("Occurred a problem in the find: %s", e.getMessage()), e);
+		}
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		return this;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if(closed) {
+			return false;
+		}
+		if(!fetched) {
+			try {
+				fetched = resultSet.next();
+			}
+			catch(Exception e) {
+				close();
+				throw new ModelException(String.format("Occurred a problem in the find: %s", e.getMessage()), e);
+			}
+			if(!fetched) {
+				close();
+			}
+		}
+		return fetched;
+	}
+
+	@Override
+	public T next() {
+		if(!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		fetched = false;
+		try {
+			T object = mapper.map(resultSet);
+			if(object instanceof ModelEntity) {
+				((ModelEntity<?>) object).snapshot();
+			}
+			rowCount++;
+			return object;
+		}
+		catch(Exception e) {
+			close();
+			throw new ModelException(String.format("Occurred a problem in the find: %s", e.getMessage()), e);
+		}
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * @return number of rows read.
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * @return
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * Close the result set and statement and give back the connection (can be called more than once).
+	 */
+	@Override
+	public void close() throws ConnectionException {
+		if(closed) {
+			return;
+		}
+		closed = true;
+		fetched = false;
+		helper.close(resultSet);
+		helper.close(statement);
+		resultSet = null;
+		statement = null;
+		helper.closeConnection();
+	}
+}
@@ -0,0 +1,21 @@
+package com.ipfaffen.ovenbird.model.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * One-to-many relationship: list (java.util.List field) of the entities of the generic type that reference this
+ * entity. It is loaded only when fetched (see Criteria.addCollectionFetch).
+ * 
+ * @author Isaias Pfaffenseller
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface JoinCollection {
+	/**
+	 * @return attribute of the collection entity that holds the id of this entity (eg: companyId).
+	 */
+	String mappedBy();
+}
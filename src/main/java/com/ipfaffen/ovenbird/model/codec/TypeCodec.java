@@ -0,0 +1,32 @@
+package com.ipfaffen.ovenbird.model.codec;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Reads and binds the values of a java type through the typed JDBC methods (getLong, setLong, etc), so the driver
+ * doesn't need to infer the type of each value.<br>
+ * Implementations are stateless and shared between threads.
+ * 
+ * @author Isaias Pfaffenseller
+ * @see TypeCodecRegistry
+ */
+public interface TypeCodec {
+
+	/**
+	 * @param resultSet
+	 * @param index
+	 * @return value or null if it is SQL NULL.
+	 * @throws SQLException
+	 */
+	public Object get(ResultSet resultSet, int index) throws SQLException;
+
+	/**
+	 * @param statement
+	 * @param index
+	 * @param value - may be null.
+	 * @throws SQLException
+	 */
+	public void set(PreparedStatement statement, int index, Object value) throws SQLException;
+}
@@ -0,0 +1,371 @@
+package com.ipfaffen.ovenbird.model.codec;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Codecs of the java types (keyed by the field type, eg: ColumnField.getType()).<br>
+ * Primitive types share the codec of their wrapper; SQL NULL is detected through wasNull() and assigned to primitive
+ * fields as their default value. Types without a codec are read and bound through getObject/setObject. Custom codecs
+ * must be registered before the first entity class is used (the row mappers resolve the codecs once).
+ * 
+ * @author Isaias Pfaffenseller
+ */
+public final class TypeCodecRegistry {
+
+	/**
+	 * Fallback codec (getObject/setObject).
+	 */
+	public static final TypeCodec OBJECT = new TypeCodec() {
+		@Override
+		public Object get(ResultSet resultSet, int index) throws SQLException {
+			return resultSet.getObject(index);
+		}
+
+		@Override
+		public void set(PreparedStatement statement, int index, Object value) throws SQLException {
+			statement.setObject(index, value);
+		}
+	};
+
+	private static final ConcurrentMap<Class<?>, TypeCodec> codecs = new ConcurrentHashMap<Class<?>, TypeCodec>();
+
+	static {
+		TypeCodec longCodec = new TypeCodec() {
+			@Override
+			public Object get(ResultSet resultSet, int index) throws SQLException {
+				long value = resultSet.getLong(index);
+				return resultSet.wasNull() ? null : Long.valueOf(value);
+			}
+
+			@Override
+			public void set(PreparedStatement statement, int index, Object value) throws SQLException {
+				if(value == null) {
+					statement.setNull(index, Types.BIGINT);
+				}
+				else {
+					statement.setLong(index, ((Number) value).longValue());
+				}
+			}
+		};
+		register(Long.class, longCodec);
+		register(long.class, longCodec);
+
+		TypeCodec intCodec = new TypeCodec() {
+			@Override
+			public Object get(ResultSet resultSet, int index) throws SQLException {
+				int value = resultSet.getInt(index);
+				return resultSet.wasNull() ? null : Integer.valueOf(value);
+			}
+
+			@Override
+			public void set(PreparedStatement statement, int index, Object value) throws SQLException {
+				if(value == null) {
+					statement.setNull(index, Types.INTEGER);
+				}
+				else {
+					statement.setInt(index, ((Number) value).intValue());
+				}
+			}
+		};
+		register(Integer.class, intCodec);
+		register(int.class, intCodec);
+
+		TypeCodec shortCodec = new TypeCodec() {
+			@Override
+			public Object get(ResultSet resultSet, int index) throws SQLException {
+				short value = resultSet.getShort(index);
+				return resultSet.wasNull() ? null : Short.valueOf(value);
+			}
+
+			@Override
+			public void set(PreparedStatement statement, int index, Object value) throws SQLException {
+				if(value == null) {
+					statement.setNull(index, Types.SMALLINT);
+				}
+				else {
+					statement.setShort(index, ((Number) value).shortValue());
+				}
+			}
+		};
+		register(Short.class, shortCodec);
+		register(short.class, shortCodec);
+
+		TypeCodec byteCodec = new TypeCodec() {
+			@Override
+			public Object get(ResultSet resultSet, int index) throws SQLException {
+				byte value = resultSet.getByte(index);
+				return resultSet.wasNull() ? null : Byte.valueOf(value);
+			}
+
+			@Override
+			public void set(PreparedStatement statement, int index, Object value) throws SQLException {
+				if(value == null) {
+					statement.setNull(index, Types.TINYINT);
+				}
+				else {
+					statement.setByte(index, ((Number) value).byteValue());
+				}
+			}
+		};
+		register(Byte.class, byteCodec);
+		register(byte.class, byteCodec);
+
+		TypeCodec doubleCodec = new TypeCodec() {
+			@Override
+			public Object get(ResultSet resultSet, int index) throws SQLException {
+				double value = resultSet.getDouble(index);
+				return resultSet.wasNull() ? null : Double.valueOf(value);
+			}
+
+			@Override
+			public void set(PreparedStatement statement, int index, Object value) throws SQLException {
+				if(value == null) {
+					statement.setNull(index, Types.DOUBLE);
+				}
+				else {
+					statement.setDouble(index, ((Number) value).doubleValue());
+				}
+			}
+		};
+		register(Double.class, doubleCodec);
+		register(double.class, doubleCodec);
+
+		TypeCodec floatCodec = new TypeCodec() {
+			@Override
+			public Object get(ResultSet resultSet, int index) throws SQLException {
+				float value = resultSet.getFloat(index);
+				return resultSet.wasNull() ? null : Float.valueOf(value);
+			}
+
+			@Override
+			public void set(PreparedStatement statement, int index, Object value) throws SQLException {
+				if(value == null) {
+					statement.setNull(index, Types.REAL);
+				}
+				else {
+					statement.setFloat(index, ((Number) value).floatValue());
+				}
+			}
+		};
+		register(Float.class, floatCodec);
+		register(float.class, floatCodec);
+
+		TypeCodec booleanCodec = new TypeCodec() {
+			@Override
+			public Object get(ResultSet resultSet, int index) throws SQLException {
+				boolean value = resultSet.getBoolean(index);
+				return resultSet.wasNull() ? null : Boolean.valueOf(value);
+			}
+
+			@Override
+			public void set(PreparedStatement statement, int index, Object value) throws SQLException {
+				if(value == null) {
+					statement.setNull(index, Types.BOOLEAN);
+				}
+				else {
+					statement.setBoolean(index, ((Boolean) value).booleanValue());
+				}
+			}
+		};
+		register(Boolean.class, booleanCodec);
+		register(boolean.class, booleanCodec);
+
+		register(String.class, new TypeCodec() {
+			@Override
+			public Object get(ResultSet resultSet, int index) throws SQLException {
+				return resultSet.getString(index);
+			}
+
+			@Override
+			public void set(PreparedStatement statement, int index, Object value) throws SQLException {
+				if(value == null) {
+					statement.setNull(index, Types.VARCHAR);
+				}
+				else {
+					statement.setString(index, (String) value);
+				}
+			}
+		});
+
+		register(BigDecimal.class, new TypeCodec() {
+			@Override
+			public Object get(ResultSet resultSet, int index) throws SQLException {
+				return resultSet.getBigDecimal(index);
+			}
+
+			@Override
+			public void set(PreparedStatement statement, int index, Object value) throws SQLException {
+				if(value == null) {
+					statement.setNull(index, Types.DECIMAL);
+				}
+				else {
+					statement.setBigDecimal(index, (BigDecimal) value);
+				}
+			}
+		});
+
+		TypeCodec timestampCodec = new TypeCodec() {
+			@Override
+			public Object get(ResultSet resultSet, int index) throws SQLException {
+				return resultSet.getTimestamp(index);
+			}
+
+			@Override
+			public void set(PreparedStatement statement, int index, Object value) throws SQLException {
+				if(value == null) {
+					statement.setNull(index, Types.TIMESTAMP);
+				}
+				else if(value instanceof Timestamp) {
+					statement.setTimestamp(index, (Timestamp) value);
+				}
+				else {
+					statement.setTimestamp(index, new Timestamp(((Date) value).getTime()));
+				}
+			}
+		};
+		register(Date.class, timestampCodec);
+		register(Timestamp.class, timestampCodec);
+
+		register(java.sql.Date.class, new TypeCodec() {
+			@Override
+			public Object get(ResultSet resultSet, int index) throws SQLException {
+				return resultSet.getDate(index);
+			}
+
+			@Override
+			public void set(PreparedStatement statement, int index, Object value) throws SQLException {
+				if(value == null) {
+					statement.setNull(index, Types.DATE);
+				}
+				else {
+					statement.setDate(index, (java.sql.Date) value);
+				}
+			}
+		});
+
+		register(Time.class, new TypeCodec() {
+			@Override
+			public Object get(ResultSet resultSet, int index) throws SQLException {
+				return resultSet.getTime(index);
+			}
+
+			@Override
+			public void set(PreparedStatement statement, int index, Object value) throws SQLException {
+				if(value == null) {
+					statement.setNull(index, Types.TIME);
+				}
+				else {
+					statement.setTime(index, (Time) value);
+				}
+			}
+		});
+
+		register(byte[].class, new TypeCodec() {
+			@Override
+			public Object get(ResultSet resultSet, int index) throws SQLException {
+				return resultSet.getBytes(index);
+			}
+
+			@Override
+			public void set(PreparedStatement statement, int index, Object value) throws SQLException {
+				if(value == null) {
+					statement.setNull(index, Types.VARBINARY);
+				}
+				else {
+					statement.setBytes(index, (byte[]) value);
+				}
+			}
+		});
+	}
+
+	private TypeCodecRegistry() {
+	}
+
+	/**
+	 * Register (or replace) the codec of a type.
+	 * 
+	 * @param type
+	 * @param codec
+	 */
+	public static void register(Class<?> type, TypeCodec codec) {
+		codecs.put(type, codec);
+	}
+
+	/**
+	 * @param type
+	 * @return codec of the type (enums are bound by name) or {@link #OBJECT} if there is none.
+	 */
+	public static TypeCodec get(Class<?> type) {
+		TypeCodec codec = codecs.get(type);
+		if(codec != null) {
+			return codec;
+		}
+		if(type.isEnum()) {
+			codec = new EnumCodec(type);
+			TypeCodec existing = codecs.putIfAbsent(type, codec);
+			return (existing == null) ? codec : existing;
+		}
+		return OBJECT;
+	}
+
+	/**
+	 * Bind a parameter by the codec of its runtime type.
+	 * 
+	 * @param statement
+	 * @param index
+	 * @param value
+	 * @throws SQLException
+	 */
+	public static void bind(PreparedStatement statement, int index, Object value) throws SQLException {
+		if(value == null) {
+			statement.setObject(index, null);
+		}
+		else if(value instanceof Enum) {
+			get(((Enum<?>) value).getDeclaringClass()).set(statement, index, value);
+		}
+		else {
+			get(value.getClass()).set(statement, index, value);
+		}
+	}
+
+	/**
+	 * Enums are stored by name.
+	 */
+	private static class EnumCodec implements TypeCodec {
+		@SuppressWarnings("rawtypes")
+		private final Class enumType;
+
+		/**
+		 * @param enumType
+		 */
+		private EnumCodec(Class<?> enumType) {
+			this.enumType = enumType;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public Object get(ResultSet resultSet, int index) throws SQLException {
+			String name = resultSet.getString(index);
+			return (name == null) ? null : Enum.valueOf(enumType, name);
+		}
+
+		@Override
+		public void set(PreparedStatement statement, int index, Object value) throws SQLException {
+			if(value == null) {
+				statement.setNull(index, Types.VARCHAR);
+			}
+			else {
+				statement.setString(index, ((Enum<?>) value).name());
+			}
+		}
+	}
+}
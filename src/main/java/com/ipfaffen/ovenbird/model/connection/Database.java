@@ -1,8 +1,16 @@
 package com.ipfaffen.ovenbird.model.connection;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 
+import com.ipfaffen.ovenbird.model.ModelConstants;
+import com.ipfaffen.ovenbird.model.dialect.SqlKey;
 import com.ipfaffen.ovenbird.model.exception.ConnectionException;
+import com.ipfaffen.ovenbird.model.util.BoundedCache;
+import com.ipfaffen.ovenbird.model.util.CachedCount;
 
 /**
  * @author Isaias Pfaffenseller
@@ -11,6 +19,16 @@ public class Database implements ConnectionHandler {
 	
 	private ModelDataSource dataSource;
 	private Connection connection;
+	private StatementCache statementCache;
+	private long statementCacheHits;
+	private long statementCacheMisses;
+	private long maxPacketSize;
+
+	/**
+	 * Totals of the count strategy PagingCriteria.Count.CACHED by count sql and values, kept per database so they are
+	 * not shared between databases (or schemas) with the same statements.
+	 */
+	private final BoundedCache<SqlKey, CachedCount> countCache = new BoundedCache<SqlKey, CachedCount>(ModelConstants.COUNT_CACHE_SIZE);
 
 	/**
 	 * Count how many times the open connection method was called to make sure that the connection is not closed when it
@@ -59,6 +77,7 @@ public class Database implements ConnectionHandler {
 			}
 			connection = dataSource.getConnection();
 			connection.setAutoCommit(true);
+			openStatementCache();
 		}
 		catch(Exception e) {
 			throw new ConnectionException(e.getMessage(), e);
@@ -81,6 +100,7 @@ public class Database implements ConnectionHandler {
 			connection = dataSource.getConnection();
 			connection.setAutoCommit(false);
 			connection.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+			openStatementCache();
 		}
 		catch(Exception e) {
 			throw new ConnectionException(e.getMessage(), e);
@@ -98,6 +118,7 @@ public class Database implements ConnectionHandler {
 			if(openConnectionCallCounter > 0 || !isConnectionOpen()) {
 				return;
 			}
+			closeStatementCache();
 			connection.close();
 		}
 		catch(Exception e) {
@@ -128,6 +149,7 @@ public class Database implements ConnectionHandler {
 				else {
 					connection.rollback();
 				}
+				closeStatementCache();
 				connection.close();
 			}
 		}
@@ -151,6 +173,130 @@ public class Database implements ConnectionHandler {
 		}
 	}
 
+	/**
+	 * Prepare a statement through the statement cache of the open connection. It must be given back with
+	 * {@link #releaseStatement(PreparedStatement)}.
+	 * 
+	 * @param sql
+	 * @return
+	 * @throws SQLException
+	 */
+	public PreparedStatement prepareStatement(String sql) throws SQLException {
+		return prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, Statement.NO_GENERATED_KEYS);
+	}
+
+	/**
+	 * @param sql
+	 * @param autoGeneratedKeys
+	 * @return
+	 * @throws SQLException
+	 * @see #prepareStatement(String)
+	 */
+	public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+		return prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, autoGeneratedKeys);
+	}
+
+	/**
+	 * @param sql
+	 * @param resultSetType
+	 * @param resultSetConcurrency
+	 * @return
+	 * @throws SQLException
+	 * @see #prepareStatement(String)
+	 */
+	public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+		return prepareStatement(sql, resultSetType, resultSetConcurrency, Statement.NO_GENERATED_KEYS);
+	}
+
+	/**
+	 * @param sql
+	 * @param resultSetType
+	 * @param resultSetConcurrency
+	 * @param autoGeneratedKeys
+	 * @return
+	 * @throws SQLException
+	 */
+	private PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int autoGeneratedKeys) throws SQLException {
+		if(statementCache != null) {
+			return statementCache.prepare(sql, resultSetType, resultSetConcurrency, autoGeneratedKeys);
+		}
+		if(autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS) {
+			return connection.prepareStatement(sql, autoGeneratedKeys);
+		}
+		return connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
+	}
+
+	/**
+	 * Give back a statement prepared by {@link #prepareStatement(String)} (closed if it is not cached).
+	 * 
+	 * @param statement
+	 */
+	public void releaseStatement(PreparedStatement statement) {
+		if(statementCache != null) {
+			statementCache.release(statement);
+			return;
+		}
+		try {
+			statement.close();
+		}
+		catch(Exception e) {
+		}
+	}
+
+	/**
+	 * @return number of statements reused from the cache (of all connections opened by this database).
+	 */
+	public long getStatementCacheHits() {
+		return statementCacheHits + ((statementCache == null) ? 0 : statementCache.getHits());
+	}
+
+	/**
+	 * @return number of statements prepared (of all connections opened by this database).
+	 */
+	public long getStatementCacheMisses() {
+		return statementCacheMisses + ((statementCache == null) ? 0 : statementCache.getMisses());
+	}
+
+	/**
+	 * The statement cache is bound to the opened connection and discarded by closeStatementCache when the connection
+	 * is closed (given back to the pool).
+	 */
+	private void openStatementCache() {
+		if(ModelConstants.STATEMENT_CACHE_SIZE > 0) {
+			statementCache = new StatementCache(connection, ModelConstants.STATEMENT_CACHE_SIZE);
+		}
+	}
+
+	private void closeStatementCache() {
+		if(statementCache != null) {
+			statementCacheHits += statementCache.getHits();
+			statementCacheMisses += statementCache.getMisses();
+			statementCache.close();
+			statementCache = null;
+		}
+	}
+
+	/**
+	 * @return max size (in bytes) of a packet accepted by the server (0 if not read yet).
+	 */
+	public long getMaxPacketSize() {
+		return maxPacketSize;
+	}
+
+	/**
+	 * @param maxPacketSize
+	 */
+	public void setMaxPacketSize(long maxPacketSize) {
+		this.maxPacketSize = maxPacketSize;
+	}
+
+	/**
+	 * @return cached totals of the count strategy PagingCriteria.Count.CACHED.
+	 */
+	public BoundedCache<SqlKey, CachedCount> getCountCache() {
+		return countCache;
+	}
+
 	@Override
 	public Connection getConnection() {
 		return connection;
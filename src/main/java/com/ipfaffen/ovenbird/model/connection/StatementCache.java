@@ -0,0 +1,221 @@
+package com.ipfaffen.ovenbird.model.connection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LRU cache of the prepared statements of a connection.<br>
+ * A statement is taken with {@link #prepare(String, int, int, int)} and must be given back with
+ * {@link #release(PreparedStatement)} (instead of closed). While a statement is in use a second request for the same
+ * sql gets a new statement that is closed on release. Evicted statements are closed (when released, if in use).<br>
+ * The cache lives only while the connection is open (see Database.closeConnection): closing the connection gives
+ * it back to the pool and closes its statements, so the statements are not reused across connections taken from a
+ * pool. To reuse them across checkouts enable the statement cache of the pool (e.g. c3p0
+ * maxStatementsPerConnection), which is kept with the physical connection.
+ *
+ * @author Isaias Pfaffenseller
+ */
+public class StatementCache {
+
+	private final Connection connection;
+	private final int maxSize;
+	private final LinkedHashMap<Key, PreparedStatement> statements;
+	private final Map<PreparedStatement, Key> cachedStatements;
+	private final Map<PreparedStatement, Boolean> inUseStatements;
+
+	private long hits;
+	private long misses;
+
+	/**
+	 * @param connection
+	 * @param maxSize
+	 */
+	public StatementCache(Connection connection, int maxSize) {
+		this.connection = connection;
+		this.maxSize = maxSize;
+		this.statements = new LinkedHashMap<Key, PreparedStatement>(16, 0.75F, true);
+		this.cachedStatements = new IdentityHashMap<PreparedStatement, Key>();
+		this.inUseStatements = new IdentityHashMap<PreparedStatement, Boolean>();
+	}
+
+	/**
+	 * @param sql
+	 * @param resultSetType
+	 * @param resultSetConcurrency
+	 * @param autoGeneratedKeys - Statement.RETURN_GENERATED_KEYS or Statement.NO_GENERATED_KEYS.
+	 * @return
+	 * @throws SQLException
+	 */
+	public PreparedStatement prepare(String sql, int resultSetType, int resultSetConcurrency, int autoGeneratedKeys) throws SQLException {
+		Key key = new Key(sql, resultSetType, resultSetConcurrency, autoGeneratedKeys);
+
+		PreparedStatement statement = statements.get(key);
+		if(statement != null && !inUseStatements.containsKey(statement)) {
+			hits++;
+			inUseStatements.put(statement, Boolean.TRUE);
+			return statement;
+		}
+
+		misses++;
+		statement = create(key);
+		inUseStatements.put(statement, Boolean.TRUE);
+		if(statements.get(key) == null) {
+			statements.put(key, statement);
+			cachedStatements.put(statement, key);
+			evict();
+		}
+		return statement;
+	}
+
+	/**
+	 * Give back the statement (parameters and batch are cleared so it can be reused).
+	 *
+	 * @param statement
+	 */
+	public void release(PreparedStatement statement) {
+		inUseStatements.remove(statement);
+		try {
+			if(cachedStatements.containsKey(statement)) {
+				statement.clearParameters();
+				statement.clearBatch();
+			}
+			else {
+				statement.close();
+			}
+		}
+		catch(SQLException e) {
+			discard(statement);
+		}
+	}
+
+	/**
+	 * Close all statements.
+	 */
+	public void close() {
+		List<PreparedStatement> allStatements = new ArrayList<PreparedStatement>(cachedStatements.keySet());
+		allStatements.addAll(inUseStatements.keySet());
+		statements.clear();
+		cachedStatements.clear();
+		inUseStatements.clear();
+		for(PreparedStatement statement: allStatements) {
+			closeQuietly(statement);
+		}
+	}
+
+	/**
+	 * @return number of statements reused.
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return number of statements prepared.
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return number of cached statements.
+	 */
+	public int size() {
+		return statements.size();
+	}
+
+	/**
+	 * @param key
+	 * @return
+	 * @throws SQLException
+	 */
+	private PreparedStatement create(Key key) throws SQLException {
+		if(key.autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS) {
+			return connection.prepareStatement(key.sql, Statement.RETURN_GENERATED_KEYS);
+		}
+		return connection.prepareStatement(key.sql, key.resultSetType, key.resultSetConcurrency);
+	}
+
+	/**
+	 * Evict the least recently used statements.
+	 */
+	private void evict() {
+		while(statements.size() > maxSize) {
+			Map.Entry<Key, PreparedStatement> eldest = statements.entrySet().iterator().next();
+			statements.remove(eldest.getKey());
+			cachedStatements.remove(eldest.getValue());
+			if(!inUseStatements.containsKey(eldest.getValue())) {
+				closeQuietly(eldest.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Remove the statement from the cache and close it.
+	 *
+	 * @param statement
+	 */
+	private void discard(PreparedStatement statement) {
+		Key key = cachedStatements.remove(statement);
+		if(key != null) {
+			statements.remove(key);
+		}
+		closeQuietly(statement);
+	}
+
+	/**
+	 * @param statement
+	 */
+	private void closeQuietly(PreparedStatement statement) {
+		try {
+			statement.close();
+		}
+		catch(Exception e) {
+		}
+	}
+
+	/**
+	 * Statement key: sql + result set type + concurrency + generated keys flag.
+	 */
+	private static final class Key {
+		private final String sql;
+		private final int resultSetType;
+		private final int resultSetConcurrency;
+		private final int autoGeneratedKeys;
+		private final int hash;
+
+		/**
+		 * @param sql
+		 * @param resultSetType
+		 * @param resultSetConcurrency
+		 * @param autoGeneratedKeys
+		 */
+		private Key(String sql, int resultSetType, int resultSetConcurrency, int autoGeneratedKeys) {
+			this.sql = sql;
+			this.resultSetType = resultSetType;
+			this.resultSetConcurrency = resultSetConcurrency;
+			this.autoGeneratedKeys = autoGeneratedKeys;
+			this.hash = ((sql.hashCode() * 31 + resultSetType) * 31 + resultSetConcurrency) * 31 + autoGeneratedKeys;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return hash == other.hash && resultSetType == other.resultSetType && resultSetConcurrency == other.resultSetConcurrency && autoGeneratedKeys == other.autoGeneratedKeys && sql.equals(other.sql);
+		}
+	}
+}
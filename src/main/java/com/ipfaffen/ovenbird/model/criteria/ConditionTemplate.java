@@ -0,0 +1,171 @@
+package com.ipfaffen.ovenbird.model.criteria;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ipfaffen.ovenbird.model.ModelConstants;
+import com.ipfaffen.ovenbird.model.metadata.EntityMetadata;
+import com.ipfaffen.ovenbird.model.util.BoundedCache;
+
+/**
+ * Parsed sql fragment with \@field references (see {@link Criteria#addCondition(String, Object...)}).<br>
+ * The fragment is tokenized in a single pass: \@from is replaced by the main table alias and the fields of the main
+ * entity are replaced by their column, so only the join paths (which depend on the criteria joins) are resolved on
+ * each use. Templates are memoized per entity class and raw fragment.
+ *
+ * @author Isaias Pfaffenseller
+ */
+final class ConditionTemplate {
+
+	private static final String FROM = "from";
+
+	private static final ClassValue<BoundedCache<String, ConditionTemplate>> templates = new ClassValue<BoundedCache<String, ConditionTemplate>>() {
+		@Override
+		protected BoundedCache<String, ConditionTemplate> computeValue(Class<?> type) {
+			return new BoundedCache<String, ConditionTemplate>(ModelConstants.CONDITION_CACHE_SIZE);
+		}
+	};
+
+	/**
+	 * Literal sql parts (one more than joinPaths).
+	 */
+	private final String[] literals;
+
+	/**
+	 * Field paths that go through joins (eg: company.name).
+	 */
+	private final String[] joinPaths;
+
+	/**
+	 * @param literals
+	 * @param joinPaths
+	 */
+	private ConditionTemplate(String[] literals, String[] joinPaths) {
+		this.literals = literals;
+		this.joinPaths = joinPaths;
+	}
+
+	/**
+	 * @param entityClass
+	 * @param sql
+	 * @return parsed (or memoized) template.
+	 */
+	static ConditionTemplate get(Class<?> entityClass, String sql) {
+		BoundedCache<String, ConditionTemplate> cache = templates.get(entityClass);
+		ConditionTemplate template = cache.get(sql);
+		if(template == null) {
+			template = cache.put(sql, parse(entityClass, sql));
+		}
+		return template;
+	}
+
+	/**
+	 * Resolve the join paths with the criteria (adding the fetches if necessary).
+	 *
+	 * @param criteria
+	 * @return
+	 */
+	String resolve(Criteria criteria) {
+		if(joinPaths.length == 0) {
+			return literals[0];
+		}
+		StringBuilder sql = new StringBuilder(literals[0]);
+		for(int i = 0; i < joinPaths.length; i++) {
+			sql.append(criteria.replaceWithAlias(joinPaths[i]));
+			sql.append(literals[i + 1]);
+		}
+		return sql.toString();
+	}
+
+	/**
+	 * @param entityClass
+	 * @param sql
+	 * @return
+	 */
+	private static ConditionTemplate parse(Class<?> entityClass, String sql) {
+		List<String> literalList = new ArrayList<String>();
+		List<String> joinPathList = new ArrayList<String>();
+
+		StringBuilder literal = new StringBuilder(sql.length() + 16);
+		int length = sql.length();
+		int i = 0;
+		while(i < length) {
+			char c = sql.charAt(i);
+
+			// Quoted text is copied as is.
+			if(c == '\'' || c == '"' || c == '`') {
+				int end = findQuoteEnd(sql, i);
+				literal.append(sql, i, end);
+				i = end;
+				continue;
+			}
+
+			if(c != '@') {
+				literal.append(c);
+				i++;
+				continue;
+			}
+
+			int start = i + 1;
+			int end = start;
+			while(end < length && isFieldChar(sql.charAt(end))) {
+				end++;
+			}
+			if(end == start) {
+				throw new RuntimeException("Invalid criteria. Check the conditions syntax.");
+			}
+
+			String fieldName = sql.substring(start, end);
+			if(fieldName.equals(FROM) || fieldName.startsWith(FROM + ".")) {
+				literal.append(ModelConstants.MAIN_TABLE_ALIAS).append(fieldName, FROM.length(), fieldName.length());
+			}
+			else if(fieldName.indexOf('.') < 0) {
+				literal.append(ModelConstants.MAIN_TABLE_ALIAS).append('.').append(EntityMetadata.get(entityClass).getColumnName(fieldName));
+			}
+			else {
+				literalList.add(literal.toString());
+				joinPathList.add(fieldName);
+				literal.setLength(0);
+			}
+			i = end;
+		}
+		literalList.add(literal.toString());
+
+		return new ConditionTemplate(literalList.toArray(new String[literalList.size()]), joinPathList.toArray(new String[joinPathList.size()]));
+	}
+
+	/**
+	 * @param sql
+	 * @param start - index of the opening quote.
+	 * @return index after the closing quote (or the sql length if it is not closed).
+	 */
+	private static int findQuoteEnd(String sql, int start) {
+		char quote = sql.charAt(start);
+		int i = start + 1;
+		while(i < sql.length()) {
+			char c = sql.charAt(i);
+			if(c == '\\' && quote != '`') {
+				i += 2;
+				continue;
+			}
+			i++;
+			if(c == quote) {
+				// Doubled quote is an escaped quote.
+				if(i < sql.length() && sql.charAt(i) == quote) {
+					i++;
+					continue;
+				}
+				return i;
+			}
+		}
+		return sql.length();
+	}
+
+	/**
+	 * @param c
+	 * @return
+	 */
+	private static boolean isFieldChar(char c) {
+		return Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '$';
+	}
+}
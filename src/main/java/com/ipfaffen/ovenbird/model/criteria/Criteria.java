@@ -1,9 +1,18 @@
 package com.ipfaffen.ovenbird.model.criteria;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import com.ipfaffen.ovenbird.model.ModelConstants;
-import com.ipfaffen.ovenbird.model.ModelUtil;
+import com.ipfaffen.ovenbird.model.metadata.EntityMetadata;
+import com.ipfaffen.ovenbird.model.util.ColumnField;
 import com.ipfaffen.ovenbird.model.util.JoinColumnField;
 
 /**
@@ -71,6 +80,18 @@ public class Criteria {
 	private CriteriaJoin criteriaJoin;
 	private Integer resultLimit;
 
+	/**
+	 * Selected column names by table alias (null selects all columns).
+	 */
+	private Map<String, Set<String>> selectedColumns;
+
+	private boolean isLazyFetchEnabled;
+
+	/**
+	 * Join collection attributes to be loaded after the find (see JoinCollection).
+	 */
+	private List<String> collectionFetches;
+
 	/**
 	 * @param modelEntityClass
 	 */
@@ -113,7 +134,8 @@ public class Criteria {
 	}
 
 	/**
-	 * Structure: [logicalOperator] [fieldName] [operator] [value]
+	 * Structure: [logicalOperator] [fieldName] [operator] [value]<br>
+	 * With the operator IN the value can be a collection or an array (see {@link CriteriaWhere#addInCondition}).
 	 * 
 	 * @param logicalOperator
 	 * @param fieldName
@@ -126,6 +148,11 @@ public class Criteria {
 			throw new RuntimeException("Value cannot be null.");
 		}
 		getCriteriaWhere().addLogicalOperator(logicalOperator);
+		if(operator == Filter.IN && (value instanceof Collection || value instanceof Object[])) {
+			Collection<?> values = (value instanceof Collection) ? (Collection<?>) value : Arrays.asList((Object[]) value);
+			getCriteriaWhere().addInCondition(replaceWithAlias(fieldName), values);
+			return this;
+		}
 		getCriteriaWhere().addCondition(replaceWithAlias(fieldName), operator);
 		getCriteriaWhere().addConditionValue(value);		
 		return this;
@@ -206,7 +233,34 @@ public class Criteria {
 	 * @return
 	 */
 	public Criteria addOrder(String columnName, int orderDirection) {
-		getCriteriaOrder().addOrder(replaceWithAlias(columnName), orderDirection);
+		getCriteriaOrder().addOrder(columnName, replaceWithAlias(columnName), orderDirection);
+		return this;
+	}
+
+	/**
+	 * Restrict the find to the given fields (the other fields are not read).<br>
+	 * Fields of fetched relationships are given by path (eg: company.name) and restrict only that relationship; a table
+	 * without selected fields has all its columns read. The id is always read.
+	 * 
+	 * @param fieldNames
+	 * @return
+	 */
+	public Criteria select(String... fieldNames) {
+		if(selectedColumns == null) {
+			selectedColumns = new LinkedHashMap<String, Set<String>>();
+		}
+		for(String fieldName: fieldNames) {
+			String column = replaceWithAlias(fieldName);
+			int dotIndex = column.indexOf('.');
+			String alias = column.substring(0, dotIndex);
+
+			Set<String> columnNames = selectedColumns.get(alias);
+			if(columnNames == null) {
+				columnNames = new LinkedHashSet<String>();
+				selectedColumns.put(alias, columnNames);
+			}
+			columnNames.add(column.substring(dotIndex + 1));
+		}
 		return this;
 	}
 
@@ -280,6 +334,14 @@ public class Criteria {
 		return this;
 	}
 
+	/**
+	 * @return
+	 */
+	public Criteria clearSelection() {
+		selectedColumns = null;
+		return this;
+	}
+
 	/**
 	 * @return
 	 */
@@ -290,6 +352,68 @@ public class Criteria {
 		return this;
 	}
 
+	/**
+	 * Enable lazy fetch: the relationships of the main entity that are not fetched are populated with id only
+	 * references, which are resolved on the first access (see ModelEntity.lazy) together with the other pending
+	 * references of the same type found by the query (up to ModelConstants.LAZY_BATCH_SIZE per query).<br>
+	 * Not supported by the finds that stream the records (iterate and row handler) nor by prepared criteria.
+	 * 
+	 * @return
+	 */
+	public Criteria enableLazyFetch() {
+		isLazyFetchEnabled = true;
+		return this;
+	}
+
+	/**
+	 * @return
+	 */
+	public boolean isLazyFetchEnabled() {
+		return isLazyFetchEnabled;
+	}
+
+	/**
+	 * Fetch the given collections (see JoinCollection) of the main entity: after the find, the elements of all found
+	 * records are loaded with a single IN query by collection (chunked if necessary) and grouped by their reference.<br>
+	 * Not supported by the finds that stream the records (iterate and row handler) nor by prepared criteria.
+	 * 
+	 * @param attributeNames
+	 * @return
+	 */
+	public Criteria addCollectionFetch(String... attributeNames) {
+		if(collectionFetches == null) {
+			collectionFetches = new ArrayList<String>();
+		}
+		for(String attributeName: attributeNames) {
+			EntityMetadata.get(modelEntityClass).getJoinCollection(attributeName);
+			if(!collectionFetches.contains(attributeName)) {
+				collectionFetches.add(attributeName);
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * @return
+	 */
+	public List<String> getCollectionFetches() {
+		return (collectionFetches == null) ? Collections.<String>emptyList() : collectionFetches;
+	}
+
+	/**
+	 * @return
+	 */
+	public boolean hasCollectionFetch() {
+		return collectionFetches != null && !collectionFetches.isEmpty();
+	}
+
+	/**
+	 * @return
+	 */
+	public Class<?> getModelEntityClass() {
+		return modelEntityClass;
+	}
+
 	/**
 	 * @return
 	 */
@@ -347,6 +471,66 @@ public class Criteria {
 		return criteriaWhere != null && (criteriaWhere.getConditions().length() > 0);
 	}
 
+	/**
+	 * @return
+	 */
+	public boolean hasSelection() {
+		return selectedColumns != null && !selectedColumns.isEmpty();
+	}
+
+	/**
+	 * @return description of the selected columns (null if all columns are selected), used in cache keys.
+	 */
+	public String getSelectionKey() {
+		return hasSelection() ? selectedColumns.toString() : null;
+	}
+
+	/**
+	 * Columns read from the table of the given alias (all columns if none of them was selected).
+	 * 
+	 * @param alias - main table alias or join alias.
+	 * @param metadata - metadata of the table entity.
+	 * @return
+	 */
+	public List<ColumnField> getSelectedColumns(String alias, EntityMetadata metadata) {
+		Set<String> columnNames = (selectedColumns == null) ? null : selectedColumns.get(alias);
+		if(columnNames == null) {
+			return metadata.getColumns();
+		}
+		List<ColumnField> columns = new ArrayList<ColumnField>();
+		for(ColumnField column: metadata.getColumns()) {
+			if(column.isId() || columnNames.contains(column.getColumnName())) {
+				columns.add(column);
+			}
+		}
+		return columns;
+	}
+
+	/**
+	 * @return true if an IN filter was split in chunks (each chunk must be executed).
+	 */
+	public boolean hasInChunks() {
+		return criteriaWhere != null && criteriaWhere.getInChunkCount() > 1;
+	}
+
+	/**
+	 * @return number of chunks of the IN filter (1 if it is not split).
+	 */
+	public int getInChunkCount() {
+		return (criteriaWhere == null) ? 1 : criteriaWhere.getInChunkCount();
+	}
+
+	/**
+	 * Select the chunk of the IN filter used by the conditions and values.
+	 * 
+	 * @param index
+	 * @return
+	 */
+	public Criteria selectInChunk(int index) {
+		getCriteriaWhere().selectInChunk(index);
+		return this;
+	}
+
 	/**
 	 * @return
 	 */
@@ -369,51 +553,13 @@ public class Criteria {
 	}
 	
 	/**
+	 * Replace \@from for the main table alias and the \@fields for their columns (adding fetches if necessary).
+	 * 
 	 * @param sql
 	 * @return
 	 */
 	protected String resolveSql(String sql) {
-		String resolvedSql = sql.replaceAll("@from", ModelConstants.MAIN_TABLE_ALIAS);
-		resolvedSql = replaceFieldsWithAlias(resolvedSql);
-		return resolvedSql;
-	}
-	
-	/**
-	 * @param sql
-	 * @return
-	 */
-	protected String replaceFieldsWithAlias(String sql) {
-		String replacedSql = sql;
-
-		int startField = -1;
-		int endField = -1;
-
-		int emptyIndex;
-		int parenthesisIndex;
-		
-		String signedFieldName;
-		String fieldName;
-
-		while((startField = sql.indexOf("@", startField + 1)) >= 0) {
-			// Field ends in the first empty space or close bracket after the @.
-			emptyIndex = sql.indexOf(" ", startField);
-			parenthesisIndex = sql.indexOf(")", startField);
-			
-			if(emptyIndex > 0 && (parenthesisIndex < 0 || emptyIndex < parenthesisIndex)) {
-				endField = emptyIndex;
-			}
-			else if(parenthesisIndex > 0) {
-				endField = parenthesisIndex;
-			}
-			else {
-				throw new RuntimeException("Invalid criteria. Check the conditions syntax.");
-			}
-
-			signedFieldName = sql.substring(startField, endField);
-			fieldName = signedFieldName.substring(1, signedFieldName.length());
-			replacedSql = replacedSql.replaceFirst(signedFieldName, replaceWithAlias(fieldName));
-		}
-		return replacedSql;
+		return ConditionTemplate.get(modelEntityClass, sql).resolve(this);
 	}
 
 	/**
@@ -431,17 +577,35 @@ public class Criteria {
 			String name = fieldName.substring(lastIndexOf + 1);
 
 			JoinColumnField joinField = getCriteriaJoin().addFetch(modelEntityClass, fetch.split("\\."));
-			String columnName = ModelUtil.getColumnName(joinField.getTable().getType(), name);
+			String columnName = EntityMetadata.get(joinField.getTable().getType()).getColumnName(name);
 
-			fieldName = fieldName.replaceFirst(fetch, joinField.getAlias());
-			fieldName = fieldName.replaceFirst(name, columnName);
+			fieldName = joinField.getAlias().concat(".").concat(columnName);
 		}
 		else {
-			fieldName = ModelConstants.MAIN_TABLE_ALIAS.concat(".").concat(ModelUtil.getColumnName(modelEntityClass, fieldName));
+			fieldName = ModelConstants.MAIN_TABLE_ALIAS.concat(".").concat(EntityMetadata.get(modelEntityClass).getColumnName(fieldName));
 		}
 		return fieldName;
 	}
 
+	/**
+	 * Copy of the criteria with its own conditions, so filters can be added without changing this criteria.<br>
+	 * The joins, orders, groupings, selected columns and fetches are shared (they must not be changed in the copy).
+	 * 
+	 * @return
+	 */
+	public Criteria copy() {
+		Criteria copy = new Criteria(modelEntityClass);
+		copy.criteriaWhere = (criteriaWhere == null) ? null : new CriteriaWhere(criteriaWhere);
+		copy.criteriaOrder = criteriaOrder;
+		copy.criteriaGroup = criteriaGroup;
+		copy.criteriaJoin = criteriaJoin;
+		copy.resultLimit = resultLimit;
+		copy.selectedColumns = selectedColumns;
+		copy.isLazyFetchEnabled = isLazyFetchEnabled;
+		copy.collectionFetches = collectionFetches;
+		return copy;
+	}
+
 	/**
 	 * @return
 	 */
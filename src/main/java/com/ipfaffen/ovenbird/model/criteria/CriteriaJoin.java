@@ -10,7 +10,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 
-import com.ipfaffen.ovenbird.model.ModelUtil;
+import com.ipfaffen.ovenbird.model.metadata.EntityMetadata;
 import com.ipfaffen.ovenbird.model.util.JoinColumnField;
 
 /**
@@ -61,7 +61,7 @@ public class CriteriaJoin {
 			}
 
 			Integer[] aliasHandler = getAliasHandler(baseJoinField, i);
-			JoinColumnField joinField = ModelUtil.getJoinField(baseClass, fetch);
+			JoinColumnField joinField = new JoinColumnField(EntityMetadata.get(baseClass).getJoinField(fetch));
 
 			joinField.setIdentifier(baseIdentifier);
 			joinField.setDepthLevel(i);
@@ -1,5 +1,8 @@
 package com.ipfaffen.ovenbird.model.criteria;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.ipfaffen.ovenbird.model.criteria.Criteria.Filter;
 
 /**
@@ -8,13 +11,34 @@ import com.ipfaffen.ovenbird.model.criteria.Criteria.Filter;
 public class CriteriaOrder {
 	
 	private StringBuilder orders;
+	private List<String> fieldNames;
+	private List<String> columnNames;
+	private List<Integer> orderDirections;
 
 	public CriteriaOrder() {
 		orders = new StringBuilder();
+		fieldNames = new ArrayList<String>();
+		columnNames = new ArrayList<String>();
+		orderDirections = new ArrayList<Integer>();
 	}
 	
 	public void clearOrders() {
 		orders = new StringBuilder();
+		fieldNames.clear();
+		columnNames.clear();
+		orderDirections.clear();
+	}
+
+	/**
+	 * @param fieldName - field path (eg: company.name).
+	 * @param columnName - column with alias (eg: t_0.name).
+	 * @param orderDirection
+	 */
+	public void addOrder(String fieldName, String columnName, int orderDirection) {
+		fieldNames.add(fieldName);
+		columnNames.add(columnName);
+		orderDirections.add(orderDirection);
+		addOrder(columnName, orderDirection);
 	}
 
 	/**
@@ -48,4 +72,25 @@ public class CriteriaOrder {
 	protected StringBuilder getOrders() {
 		return orders;
 	}
+
+	/**
+	 * @return field paths of the orders added by field.
+	 */
+	protected List<String> getFieldNames() {
+		return fieldNames;
+	}
+
+	/**
+	 * @return columns (with alias) of the orders added by field.
+	 */
+	protected List<String> getColumnNames() {
+		return columnNames;
+	}
+
+	/**
+	 * @return directions of the orders added by field.
+	 */
+	protected List<Integer> getOrderDirections() {
+		return orderDirections;
+	}
 }
\ No newline at end of file
@@ -1,26 +1,62 @@
 package com.ipfaffen.ovenbird.model.criteria;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.regex.Pattern;
 
+import com.ipfaffen.ovenbird.model.ModelConstants;
 import com.ipfaffen.ovenbird.model.criteria.Criteria.Filter;
 
 /**
  * @author Isaias Pfaffenseller
  */
 public class CriteriaWhere {
+
+	private static final Pattern OR_PATTERN = Pattern.compile("\\bOR\\b", Pattern.CASE_INSENSITIVE);
 	
 	private StringBuilder conditions;
 	private List<Object> conditionsValues;
 
+	/**
+	 * Values of the IN filter split in chunks (null if there is none), their position in the conditions and values and
+	 * the selected chunk.
+	 */
+	private List<List<Object>> inChunks;
+	private int inChunksOffset;
+	private int inChunksValueIndex;
+	private int inChunkIndex;
+
+	/**
+	 * False if some condition may be combined with OR (the IN filter chunks are not a top-level AND conjunct).
+	 */
+	private boolean isConjunction = true;
+
 	public CriteriaWhere() {
 		conditions = new StringBuilder();
 		conditionsValues = new ArrayList<Object>();
 	}
+
+	/**
+	 * @param criteriaWhere - conditions to be copied (the IN filter chunks are not changed, so they are shared).
+	 */
+	public CriteriaWhere(CriteriaWhere criteriaWhere) {
+		conditions = new StringBuilder(criteriaWhere.conditions);
+		conditionsValues = new ArrayList<Object>(criteriaWhere.conditionsValues);
+		inChunks = criteriaWhere.inChunks;
+		inChunksOffset = criteriaWhere.inChunksOffset;
+		inChunksValueIndex = criteriaWhere.inChunksValueIndex;
+		inChunkIndex = criteriaWhere.inChunkIndex;
+		isConjunction = criteriaWhere.isConjunction;
+	}
 	
 	public void clearConditions() {
 		conditions = new StringBuilder();
 		conditionsValues.clear();
+		inChunks = null;
+		inChunkIndex = 0;
+		isConjunction = true;
 	}
 
 	/**
@@ -28,6 +64,9 @@ public class CriteriaWhere {
 	 */
 	public void addLogicalOperator(int logicalOperator) {
 		if(conditions.length() > 0) {
+			if(logicalOperator == Filter.OR) {
+				isConjunction = false;
+			}
 			conditions.append(" ");
 			conditions.append(getLogicalOperator(logicalOperator));
 			conditions.append(" ");
@@ -46,9 +85,76 @@ public class CriteriaWhere {
 	 * @param filter
 	 */
 	public void addCondition(String filter) {
+		if(OR_PATTERN.matcher(filter).find()) {
+			isConjunction = false;
+		}
 		conditions.append(filter);
 	}
 
+	/**
+	 * Structure: [columnName] IN (?, ?, ...)<br>
+	 * Duplicated values are removed and the placeholders are padded (repeating the last value) to a power of two, so
+	 * different lists share a few sql shapes. Above ModelConstants.IN_MAX_PARAMETERS values the list is split in
+	 * chunks (see {@link #getInChunkCount()}), which is only allowed when all conditions are combined with AND.
+	 * 
+	 * @param columnName
+	 * @param values
+	 */
+	public void addInCondition(String columnName, Collection<?> values) {
+		List<Object> distinctValues = new ArrayList<Object>(new LinkedHashSet<Object>(values));
+		if(distinctValues.isEmpty()) {
+			conditions.append("1 = 0");
+			return;
+		}
+
+		int chunkSize = Integer.highestOneBit(Math.max(1, ModelConstants.IN_MAX_PARAMETERS));
+		conditions.append(columnName).append(" IN (");
+		if(distinctValues.size() <= chunkSize) {
+			List<Object> paddedValues = pad(distinctValues);
+			appendPlaceholders(conditions, paddedValues.size());
+			conditionsValues.addAll(paddedValues);
+		}
+		else {
+			if(inChunks != null) {
+				throw new RuntimeException(String.format("Only one IN filter can have more than %d values.", chunkSize));
+			}
+			inChunks = new ArrayList<List<Object>>();
+			for(int i = 0; i < distinctValues.size(); i += chunkSize) {
+				inChunks.add(pad(distinctValues.subList(i, Math.min(i + chunkSize, distinctValues.size()))));
+			}
+			inChunksOffset = conditions.length();
+			inChunksValueIndex = conditionsValues.size();
+			inChunkIndex = 0;
+		}
+		conditions.append(")");
+	}
+
+	/**
+	 * @return number of chunks of the IN filter (1 if it is not split).
+	 */
+	public int getInChunkCount() {
+		if(inChunks == null) {
+			return 1;
+		}
+		if(!isConjunction) {
+			// The chunks would be executed apart from the OR conditions (duplicated rows and totals).
+			throw new RuntimeException(String.format("IN filter with more than %d values can only be combined with AND conditions.", ModelConstants.IN_MAX_PARAMETERS));
+		}
+		return inChunks.size();
+	}
+
+	/**
+	 * Select the chunk of the IN filter rendered by the conditions and values.
+	 * 
+	 * @param index
+	 */
+	public void selectInChunk(int index) {
+		if(index < 0 || index >= getInChunkCount()) {
+			throw new IndexOutOfBoundsException(String.format("Invalid IN chunk: %d.", index));
+		}
+		inChunkIndex = index;
+	}
+
 	/**
 	 * @param conditionValues
 	 */
@@ -110,6 +216,31 @@ public class CriteriaWhere {
 		return condition.toString();
 	}
 
+	/**
+	 * @param values
+	 * @return values padded to a power of two size with the last value.
+	 */
+	private List<Object> pad(List<Object> values) {
+		int size = values.size();
+		int paddedSize = (Integer.bitCount(size) == 1) ? size : (Integer.highestOneBit(size) << 1);
+		List<Object> paddedValues = new ArrayList<Object>(paddedSize);
+		paddedValues.addAll(values);
+		while(paddedValues.size() < paddedSize) {
+			paddedValues.add(values.get(size - 1));
+		}
+		return paddedValues;
+	}
+
+	/**
+	 * @param sql
+	 * @param count
+	 */
+	private void appendPlaceholders(StringBuilder sql, int count) {
+		for(int i = 0; i < count; i++) {
+			sql.append((i == 0) ? "?" : ", ?");
+		}
+	}
+
 	/**
 	 * @param logicalOperator
 	 * @return
@@ -125,13 +256,23 @@ public class CriteriaWhere {
 	 * @return
 	 */
 	protected StringBuilder getConditions() {
-		return conditions;
+		if(inChunks == null) {
+			return conditions;
+		}
+		StringBuilder placeholders = new StringBuilder();
+		appendPlaceholders(placeholders, inChunks.get(inChunkIndex).size());
+		return new StringBuilder(conditions).insert(inChunksOffset, placeholders);
 	}
 
 	/**
 	 * @return
 	 */
 	protected List<Object> getConditionsValues() {
-		return conditionsValues;
+		if(inChunks == null) {
+			return conditionsValues;
+		}
+		List<Object> values = new ArrayList<Object>(conditionsValues);
+		values.addAll(inChunksValueIndex, inChunks.get(inChunkIndex));
+		return values;
 	}
 }
\ No newline at end of file
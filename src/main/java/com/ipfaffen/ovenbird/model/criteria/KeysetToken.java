@@ -0,0 +1,198 @@
+package com.ipfaffen.ovenbird.model.criteria;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * Encodes the ordering key values of the last record of a page into an opaque (hex) continuation token.<br>
+ * Only simple types are accepted (no java serialization), so a token received from a client can be safely decoded.
+ * 
+ * @author Isaias Pfaffenseller
+ */
+final class KeysetToken {
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private static final byte NULL = 0;
+	private static final byte LONG = 1;
+	private static final byte INTEGER = 2;
+	private static final byte SHORT = 3;
+	private static final byte BYTE = 4;
+	private static final byte DOUBLE = 5;
+	private static final byte FLOAT = 6;
+	private static final byte BOOLEAN = 7;
+	private static final byte STRING = 8;
+	private static final byte BIG_DECIMAL = 9;
+	private static final byte DATE = 10;
+	private static final byte TIMESTAMP = 11;
+	private static final byte SQL_DATE = 12;
+
+	private KeysetToken() {
+	}
+
+	/**
+	 * @param values
+	 * @return
+	 */
+	static String encode(Object[] values) {
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeShort(values.length);
+			for(Object value: values) {
+				write(out, value);
+			}
+			out.flush();
+
+			StringBuilder token = new StringBuilder(bytes.size() * 2);
+			for(byte b: bytes.toByteArray()) {
+				token.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+			}
+			return token.toString();
+		}
+		catch(IOException e) {
+			throw new RuntimeException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * @param token
+	 * @return
+	 */
+	static Object[] decode(String token) {
+		try {
+			if(token.length() % 2 != 0) {
+				throw new IllegalArgumentException();
+			}
+			byte[] bytes = new byte[token.length() / 2];
+			for(int i = 0; i < bytes.length; i++) {
+				int high = Character.digit(token.charAt(i * 2), 16);
+				int low = Character.digit(token.charAt(i * 2 + 1), 16);
+				if(high < 0 || low < 0) {
+					throw new IllegalArgumentException();
+				}
+				bytes[i] = (byte) ((high << 4) | low);
+			}
+
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+			Object[] values = new Object[in.readShort()];
+			for(int i = 0; i < values.length; i++) {
+				values[i] = read(in);
+			}
+			return values;
+		}
+		catch(Exception e) {
+			throw new RuntimeException("Invalid keyset token.", e);
+		}
+	}
+
+	/**
+	 * @param out
+	 * @param value
+	 * @throws IOException
+	 */
+	private static void write(DataOutputStream out, Object value) throws IOException {
+		if(value == null) {
+			out.writeByte(NULL);
+		}
+		else if(value instanceof Long) {
+			out.writeByte(LONG);
+			out.writeLong((Long) value);
+		}
+		else if(value instanceof Integer) {
+			out.writeByte(INTEGER);
+			out.writeInt((Integer) value);
+		}
+		else if(value instanceof Short) {
+			out.writeByte(SHORT);
+			out.writeShort((Short) value);
+		}
+		else if(value instanceof Byte) {
+			out.writeByte(BYTE);
+			out.writeByte((Byte) value);
+		}
+		else if(value instanceof Double) {
+			out.writeByte(DOUBLE);
+			out.writeDouble((Double) value);
+		}
+		else if(value instanceof Float) {
+			out.writeByte(FLOAT);
+			out.writeFloat((Float) value);
+		}
+		else if(value instanceof Boolean) {
+			out.writeByte(BOOLEAN);
+			out.writeBoolean((Boolean) value);
+		}
+		else if(value instanceof String) {
+			out.writeByte(STRING);
+			out.writeUTF((String) value);
+		}
+		else if(value instanceof BigDecimal) {
+			out.writeByte(BIG_DECIMAL);
+			out.writeUTF(value.toString());
+		}
+		else if(value instanceof Timestamp) {
+			out.writeByte(TIMESTAMP);
+			out.writeLong(((Timestamp) value).getTime());
+			out.writeInt(((Timestamp) value).getNanos());
+		}
+		else if(value instanceof java.sql.Date) {
+			out.writeByte(SQL_DATE);
+			out.writeLong(((Date) value).getTime());
+		}
+		else if(value instanceof Date) {
+			out.writeByte(DATE);
+			out.writeLong(((Date) value).getTime());
+		}
+		else {
+			throw new RuntimeException(String.format("Type not supported as keyset order: %s", value.getClass().getName()));
+		}
+	}
+
+	/**
+	 * @param in
+	 * @return
+	 * @throws IOException
+	 */
+	private static Object read(DataInputStream in) throws IOException {
+		byte type = in.readByte();
+		switch(type) {
+			case NULL:
+				return null;
+			case LONG:
+				return in.readLong();
+			case INTEGER:
+				return in.readInt();
+			case SHORT:
+				return in.readShort();
+			case BYTE:
+				return in.readByte();
+			case DOUBLE:
+				return in.readDouble();
+			case FLOAT:
+				return in.readFloat();
+			case BOOLEAN:
+				return in.readBoolean();
+			case STRING:
+				return in.readUTF();
+			case BIG_DECIMAL:
+				return new BigDecimal(in.readUTF());
+			case DATE:
+				return new Date(in.readLong());
+			case TIMESTAMP:
+				Timestamp timestamp = new Timestamp(in.readLong());
+				timestamp.setNanos(in.readInt());
+				return timestamp;
+			case SQL_DATE:
+				return new java.sql.Date(in.readLong());
+			default:
+				throw new IOException("Invalid type.");
+		}
+	}
+}
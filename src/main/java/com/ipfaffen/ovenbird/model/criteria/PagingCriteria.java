@@ -1,15 +1,55 @@
 package com.ipfaffen.ovenbird.model.criteria;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.ipfaffen.ovenbird.commons.PagingHelper;
 import com.ipfaffen.ovenbird.model.ModelConstants;
+import com.ipfaffen.ovenbird.model.metadata.EntityMetadata;
+import com.ipfaffen.ovenbird.model.util.ColumnField;
 
 /**
  * @author Isaias Pfaffenseller
  */
 public class PagingCriteria extends Criteria {
 
+	/**
+	 * Strategies to find the total rows of the paging (only when the paging total rows is not set).
+	 */
+	public static final class Count {
+		/**
+		 * Exact count in a second query (SELECT COUNT(1)).
+		 */
+		public static final int EXACT = 0;
+		/**
+		 * Exact count in the same query with the window function COUNT(*) OVER() (requires MySQL 8.0 or later).
+		 */
+		public static final int WINDOW = 1;
+		/**
+		 * Exact count calculated by the same query (SQL_CALC_FOUND_ROWS) and read with FOUND_ROWS().<br>
+		 * Both are deprecated since MySQL 8.0.17 (prefer EXACT or WINDOW there).
+		 */
+		public static final int FOUND_ROWS = 2;
+		/**
+		 * No count: one more record is fetched and the total rows is the last fetched row (so it is known only if
+		 * there is a next page). It is estimated again on every page.
+		 */
+		public static final int HAS_MORE = 3;
+		/**
+		 * Approximate count from the table statistics (exact count if there are conditions).
+		 */
+		public static final int APPROXIMATE = 4;
+		/**
+		 * Exact count cached by database, statement and values for ModelConstants.COUNT_CACHE_TTL milliseconds.
+		 */
+		public static final int CACHED = 5;
+	};
+
 	private PagingHelper pagingHelper;
 	private boolean isPagingEnabled = true;
+	private int countStrategy = ModelConstants.DEFAULT_COUNT_STRATEGY;
+	private boolean isKeysetEnabled;
+	private Object[] keysetValues;
 
 	/**
 	 * @param modelEntityClass
@@ -56,4 +96,304 @@ public class PagingCriteria extends Criteria {
 	public PagingHelper getPaging() {
 		return pagingHelper;
 	}
+
+	/**
+	 * @param countStrategy - see {@link Count}.
+	 */
+	public void setCountStrategy(int countStrategy) {
+		this.countStrategy = countStrategy;
+	}
+
+	/**
+	 * @return
+	 */
+	public int getCountStrategy() {
+		return countStrategy;
+	}
+
+	/**
+	 * @return number of records to fetch for the page (one more if it is necessary to know if there is a next page).
+	 */
+	public int getRowLimit() {
+		if(isKeysetEnabled || countStrategy == Count.HAS_MORE) {
+			return pagingHelper.getPageSize() + 1;
+		}
+		return pagingHelper.getPageSize();
+	}
+
+	/**
+	 * Enable keyset (seek) pagination: instead of skipping the previous records (LIMIT start, size) the page continues
+	 * from the ordering key of the last record of the previous page (see {@link #setKeysetToken(String)}), so every
+	 * page costs the same as the first one.<br>
+	 * The orders must be added by field and their columns must not be null; the id is added as the last order to make
+	 * the key unique.
+	 */
+	public void enableKeyset() {
+		isKeysetEnabled = true;
+	}
+
+	/**
+	 * @return
+	 */
+	public boolean isKeysetEnabled() {
+		return isKeysetEnabled;
+	}
+
+	/**
+	 * @param token - continuation token of the previous page (null for the first page).
+	 */
+	public void setKeysetToken(String token) {
+		if(token == null || token.isEmpty()) {
+			keysetValues = null;
+			return;
+		}
+		Object[] values = KeysetToken.decode(token);
+		if(values.length != getKeysetFieldNames().size()) {
+			throw new RuntimeException("Invalid keyset token.");
+		}
+		keysetValues = values;
+	}
+
+	/**
+	 * @return true if this is not the first page of a keyset pagination.
+	 */
+	public boolean hasKeysetToken() {
+		return keysetValues != null;
+	}
+
+	/**
+	 * Build the continuation token from the last record of the page.
+	 * 
+	 * @param lastRecord
+	 * @return
+	 */
+	public String buildKeysetToken(Object lastRecord) {
+		List<String> fieldNames = getKeysetFieldNames();
+		Object[] values = new Object[fieldNames.size()];
+		for(int i = 0; i < values.length; i++) {
+			values[i] = getFieldValue(lastRecord, fieldNames.get(i));
+		}
+		return KeysetToken.encode(values);
+	}
+
+	@Override
+	public boolean hasCondition() {
+		return super.hasCondition() || isKeysetActive();
+	}
+
+	@Override
+	public String getConditions() {
+		if(!isKeysetActive()) {
+			return super.getConditions();
+		}
+		StringBuilder conditions = new StringBuilder();
+		if(super.hasCondition()) {
+			conditions.append("(").append(super.getConditions()).append(") AND ");
+		}
+		return conditions.append(buildKeysetCondition()).toString();
+	}
+
+	/**
+	 * With paging enabled the values also include the keyset values and the values of the bound LIMIT clause (start
+	 * index, unless keyset pagination is enabled, and row limit), so the sql doesn't change from page to page.
+	 */
+	@Override
+	public List<Object> getConditionsValues() {
+		if(!isPagingEnabled) {
+			return super.getConditionsValues();
+		}
+		List<Object> values = new ArrayList<Object>(super.getConditionsValues());
+		if(isKeysetActive()) {
+			List<Integer> directions = getKeysetOrderDirections();
+			if(isSameDirection(directions)) {
+				for(Object value: keysetValues) {
+					values.add(value);
+				}
+			}
+			else {
+				// Values of the expansion: (k1 > ?) OR (k1 = ? AND k2 > ?) OR ...
+				for(int i = 0; i < keysetValues.length; i++) {
+					for(int j = 0; j <= i; j++) {
+						values.add(keysetValues[j]);
+					}
+				}
+			}
+		}
+		if(!isKeysetEnabled) {
+			values.add(pagingHelper.getStartIndex());
+		}
+		values.add(getRowLimit());
+		return values;
+	}
+
+	@Override
+	public boolean hasOrder() {
+		return super.hasOrder() || (isKeysetEnabled && isPagingEnabled);
+	}
+
+	@Override
+	public String getOrders() {
+		if(!isKeysetEnabled || !isPagingEnabled || hasIdOrder()) {
+			return super.getOrders();
+		}
+		StringBuilder orders = new StringBuilder();
+		if(super.hasOrder()) {
+			orders.append(super.getOrders()).append(", ");
+		}
+		orders.append(getIdColumnName()).append(" ").append(getIdOrderDirection() == Filter.DESC ? "DESC" : "ASC").append(" ");
+		return orders.toString();
+	}
+
+	/**
+	 * @return
+	 */
+	private boolean isKeysetActive() {
+		return isKeysetEnabled && isPagingEnabled && keysetValues != null;
+	}
+
+	/**
+	 * Same direction: (k1, k2) > (?, ?)<br>
+	 * Mixed directions: ((k1 > ?) OR (k1 = ? AND k2 < ?))
+	 * 
+	 * @return
+	 */
+	private String buildKeysetCondition() {
+		List<String> columnNames = getKeysetColumnNames();
+		List<Integer> directions = getKeysetOrderDirections();
+
+		StringBuilder condition = new StringBuilder();
+		if(isSameDirection(directions)) {
+			StringBuilder parameters = new StringBuilder();
+			condition.append("(");
+			for(int i = 0; i < columnNames.size(); i++) {
+				if(i > 0) {
+					condition.append(", ");
+					parameters.append(", ");
+				}
+				condition.append(columnNames.get(i));
+				parameters.append("?");
+			}
+			condition.append(") ").append(getSeekOperator(directions.get(0))).append(" (").append(parameters).append(")");
+			return condition.toString();
+		}
+
+		condition.append("(");
+		for(int i = 0; i < columnNames.size(); i++) {
+			if(i > 0) {
+				condition.append(" OR ");
+			}
+			condition.append("(");
+			for(int j = 0; j < i; j++) {
+				condition.append(columnNames.get(j)).append(" = ? AND ");
+			}
+			condition.append(columnNames.get(i)).append(" ").append(getSeekOperator(directions.get(i))).append(" ?)");
+		}
+		return condition.append(")").toString();
+	}
+
+	/**
+	 * @param direction
+	 * @return
+	 */
+	private String getSeekOperator(int direction) {
+		return (direction == Filter.DESC) ? "<" : ">";
+	}
+
+	/**
+	 * @param directions
+	 * @return
+	 */
+	private boolean isSameDirection(List<Integer> directions) {
+		for(Integer direction: directions) {
+			if(!direction.equals(directions.get(0))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return ordering field names plus the id (if it is not ordered).
+	 */
+	private List<String> getKeysetFieldNames() {
+		List<String> fieldNames = new ArrayList<String>(getCriteriaOrder().getFieldNames());
+		if(!hasIdOrder()) {
+			fieldNames.add(getIdColumn().getAttributeName());
+		}
+		return fieldNames;
+	}
+
+	/**
+	 * @return
+	 */
+	private List<String> getKeysetColumnNames() {
+		List<String> columnNames = new ArrayList<String>(getCriteriaOrder().getColumnNames());
+		if(!hasIdOrder()) {
+			columnNames.add(getIdColumnName());
+		}
+		return columnNames;
+	}
+
+	/**
+	 * @return
+	 */
+	private List<Integer> getKeysetOrderDirections() {
+		List<Integer> directions = new ArrayList<Integer>(getCriteriaOrder().getOrderDirections());
+		if(!hasIdOrder()) {
+			directions.add(getIdOrderDirection());
+		}
+		return directions;
+	}
+
+	/**
+	 * @return
+	 */
+	private boolean hasIdOrder() {
+		return getCriteriaOrder().getFieldNames().contains(getIdColumn().getAttributeName());
+	}
+
+	/**
+	 * @return direction of the last order (ascendent if there is none).
+	 */
+	private int getIdOrderDirection() {
+		List<Integer> directions = getCriteriaOrder().getOrderDirections();
+		return directions.isEmpty() ? Filter.ASC : directions.get(directions.size() - 1);
+	}
+
+	/**
+	 * @return
+	 */
+	private ColumnField getIdColumn() {
+		ColumnField idColumn = EntityMetadata.get(getModelEntityClass()).getIdColumn();
+		if(idColumn == null) {
+			throw new RuntimeException("Keyset pagination requires an id column.");
+		}
+		return idColumn;
+	}
+
+	/**
+	 * @return
+	 */
+	private String getIdColumnName() {
+		return ModelConstants.MAIN_TABLE_ALIAS.concat(".").concat(getIdColumn().getColumnName());
+	}
+
+	/**
+	 * @param record
+	 * @param fieldName - field path (eg: company.name).
+	 * @return
+	 */
+	private Object getFieldValue(Object record, String fieldName) {
+		Object current = record;
+		EntityMetadata metadata = EntityMetadata.get(getModelEntityClass());
+		String[] path = fieldName.split("\\.");
+		for(int i = 0; i < path.length - 1; i++) {
+			current = metadata.getJoinField(path[i]).getBaseFieldAccessor().get(current);
+			if(current == null) {
+				return null;
+			}
+			metadata = EntityMetadata.get(metadata.getJoinField(path[i]).getTable().getType());
+		}
+		return metadata.getColumn(path[path.length - 1]).getAccessor().get(current);
+	}
 }
\ No newline at end of file
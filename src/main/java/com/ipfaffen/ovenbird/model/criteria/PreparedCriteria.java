@@ -0,0 +1,110 @@
+package com.ipfaffen.ovenbird.model.criteria;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.ipfaffen.ovenbird.model.mapper.RowMapper;
+
+/**
+ * Criteria compiled once (sql statements, join plan and row mapper resolved) to be executed many times with different
+ * parameter values (see ModelDao.prepare).<br>
+ * It is immutable and can be shared between threads.
+ *
+ * @author Isaias Pfaffenseller
+ */
+public final class PreparedCriteria<T> {
+
+	private final Class<T> entityClass;
+	private final String findSql;
+	private final String loadSql;
+	private final String countSql;
+	private final String existsSql;
+	private final RowMapper<T> mapper;
+	private final List<Object> values;
+
+	/**
+	 * @param entityClass
+	 * @param findSql
+	 * @param loadSql - find limited to one record.
+	 * @param countSql
+	 * @param existsSql
+	 * @param mapper
+	 * @param values - values of the criteria (used when none is given).
+	 */
+	public PreparedCriteria(Class<T> entityClass, String findSql, String loadSql, String countSql, String existsSql, RowMapper<T> mapper, List<Object> values) {
+		this.entityClass = entityClass;
+		this.findSql = findSql;
+		this.loadSql = loadSql;
+		this.countSql = countSql;
+		this.existsSql = existsSql;
+		this.mapper = mapper;
+		this.values = Collections.unmodifiableList(new ArrayList<Object>(values));
+	}
+
+	/**
+	 * @return
+	 */
+	public Class<T> getEntityClass() {
+		return entityClass;
+	}
+
+	/**
+	 * @return
+	 */
+	public String getFindSql() {
+		return findSql;
+	}
+
+	/**
+	 * @return
+	 */
+	public String getLoadSql() {
+		return loadSql;
+	}
+
+	/**
+	 * @return
+	 */
+	public String getCountSql() {
+		return countSql;
+	}
+
+	/**
+	 * @return
+	 */
+	public String getExistsSql() {
+		return existsSql;
+	}
+
+	/**
+	 * @return
+	 */
+	public RowMapper<T> getMapper() {
+		return mapper;
+	}
+
+	/**
+	 * @return number of parameters (?) of the conditions.
+	 */
+	public int getParameterCount() {
+		return values.size();
+	}
+
+	/**
+	 * Bind the given values to the parameter slots.
+	 *
+	 * @param newValues - values in the same order of the criteria conditions (none to use the criteria values).
+	 * @return
+	 */
+	public List<Object> bind(Object... newValues) {
+		if(newValues == null || newValues.length == 0) {
+			return values;
+		}
+		if(newValues.length != values.size()) {
+			throw new RuntimeException(String.format("Invalid number of parameters: expected %d but was %d.", values.size(), newValues.length));
+		}
+		return Arrays.asList(newValues);
+	}
+}
@@ -7,6 +7,7 @@ import java.util.List;
 import com.ipfaffen.ovenbird.commons.StringUtil;
 import com.ipfaffen.ovenbird.model.criteria.Criteria;
 import com.ipfaffen.ovenbird.model.criteria.PagingCriteria;
+import com.ipfaffen.ovenbird.model.metadata.EntityMetadata;
 import com.ipfaffen.ovenbird.model.util.ColumnField;
 import com.ipfaffen.ovenbird.model.util.FieldList;
 import com.ipfaffen.ovenbird.model.util.JoinColumnField;
@@ -18,17 +19,91 @@ public class MySqlDialect extends SqlDialect {
 
 	@Override
 	public String buildInsert(String tableName, FieldList fields) {
+		SqlKey key = buildKey(INSERT, tableName, null, getColumnNames(fields));
+		String cachedSql = getCachedSql(key);
+		if(cachedSql != null) {
+			return cachedSql;
+		}
+
 		StringBuilder columns = new StringBuilder();
 		StringBuilder values = new StringBuilder();
 		for(ColumnField field: fields) {
 			StringUtil.appendTo(columns, ("`" + field.getColumnName() + "`"));
 			StringUtil.appendTo(values, "?");
 		}
-		return new StringBuilder("INSERT INTO `").append(tableName).append("`(").append(columns).append(") VALUES(").append(values).append(")").toString();
+		return cacheSql(key, new StringBuilder("INSERT INTO `").append(tableName).append("`(").append(columns).append(") VALUES(").append(values).append(")").toString());
+	}
+	
+	@Override
+	public String buildInsert(String tableName, FieldList fields, int rows) {
+		SqlKey key = new SqlKey(getClass(), INSERT_ROWS, tableName, getColumnNames(fields), rows);
+		String cachedSql = getCachedSql(key);
+		if(cachedSql != null) {
+			return cachedSql;
+		}
+
+		StringBuilder columns = new StringBuilder();
+		StringBuilder values = new StringBuilder("(");
+		for(ColumnField field: fields) {
+			StringUtil.appendTo(columns, ("`" + field.getColumnName() + "`"));
+			values.append((values.length() == 1) ? "?" : ", ?");
+		}
+		values.append(")");
+
+		StringBuilder sql = new StringBuilder("INSERT INTO `").append(tableName).append("`(").append(columns).append(") VALUES");
+		for(int i = 0; i < rows; i++) {
+			sql.append((i == 0) ? "" : ",").append(values);
+		}
+		return cacheSql(key, sql.toString());
+	}
+
+	@Override
+	public String buildUpsert(String tableName, FieldList fields, FieldList updateFields) {
+		SqlKey key = new SqlKey(getClass(), UPSERT, tableName, getColumnNames(fields), getColumnNames(updateFields));
+		String cachedSql = getCachedSql(key);
+		if(cachedSql != null) {
+			return cachedSql;
+		}
+
+		StringBuilder updates = new StringBuilder();
+		for(ColumnField field: updateFields) {
+			if(!field.isId()) {
+				StringUtil.appendTo(updates, ("`" + field.getColumnName() + "` = VALUES(`" + field.getColumnName() + "`)"));
+			}
+		}
+		// LAST_INSERT_ID(id) makes the generated key return the id of the updated record.
+		ColumnField idField = fields.getIdField();
+		if(idField != null) {
+			StringUtil.appendTo(updates, ("`" + idField.getColumnName() + "` = LAST_INSERT_ID(`" + idField.getColumnName() + "`)"));
+		}
+
+		String insert = buildInsert(tableName, fields);
+		return cacheSql(key, new StringBuilder(insert).append(" ON DUPLICATE KEY UPDATE ").append(updates).toString());
+	}
+
+	@Override
+	public String buildLastInsertId() {
+		return "SELECT LAST_INSERT_ID()";
+	}
+
+	@Override
+	public String buildMaxPacketSize() {
+		return "SELECT @@max_allowed_packet";
+	}
+
+	@Override
+	public int getMaxParameters() {
+		return 65535;
 	}
 	
 	@Override
 	public String buildUpdate(String tableName, Criteria criteria, FieldList fields) {
+		SqlKey key = buildKey(UPDATE, tableName, criteria, getColumnNames(fields));
+		String cachedSql = getCachedSql(key);
+		if(cachedSql != null) {
+			return cachedSql;
+		}
+
 		StringBuilder columns = new StringBuilder();
 		for(ColumnField field: fields) {
 			StringUtil.appendTo(columns, MAIN_TABLE_ALIAS.concat(".").concat(field.getColumnName()).concat(" = ?"));
@@ -41,28 +116,87 @@ public class MySqlDialect extends SqlDialect {
 		}
 		sql.append(" SET ").append(columns);
 		addClauses(sql, criteria, false);
-		return sql.toString();
+		return cacheSql(key, sql.toString());
 	}
 	
 	@Override
 	public String buildDelete(String tableName, Criteria criteria) {
+		SqlKey key = buildKey(DELETE, tableName, criteria, null);
+		String cachedSql = getCachedSql(key);
+		if(cachedSql != null) {
+			return cachedSql;
+		}
+
 		StringBuilder sql = new StringBuilder();
 		sql.append("DELETE ").append(MAIN_TABLE_ALIAS);
 		sql.append(" FROM `").append(tableName).append("` ").append(MAIN_TABLE_ALIAS);
 		addClauses(sql, criteria);
-		return sql.toString();
+		return cacheSql(key, sql.toString());
 	}
 	
 	@Override
 	public String buildFind(String tableName, Criteria criteria) {
+		SqlKey key = buildKey(FIND, tableName, criteria, null);
+		String cachedSql = getCachedSql(key);
+		if(cachedSql != null) {
+			return cachedSql;
+		}
+
 		StringBuilder sql = new StringBuilder();
-		sql.append("SELECT * FROM `").append(tableName).append("` ").append(MAIN_TABLE_ALIAS);
+		sql.append("SELECT ").append(buildColumns(criteria));
+		sql.append(" FROM `").append(tableName).append("` ").append(MAIN_TABLE_ALIAS);
 		addClauses(sql, criteria);
-		return sql.toString();
+		return cacheSql(key, sql.toString());
 	}
 	
+	@Override
+	public String buildFindWithTotal(String tableName, Criteria criteria) {
+		SqlKey key = buildKey(FIND_WITH_TOTAL, tableName, criteria, null);
+		String cachedSql = getCachedSql(key);
+		if(cachedSql != null) {
+			return cachedSql;
+		}
+
+		StringBuilder sql = new StringBuilder();
+		sql.append("SELECT ").append(buildColumns(criteria)).append(", COUNT(*) OVER() AS ").append(TOTAL_ROWS_COLUMN);
+		sql.append(" FROM `").append(tableName).append("` ").append(MAIN_TABLE_ALIAS);
+		addClauses(sql, criteria);
+		return cacheSql(key, sql.toString());
+	}
+
+	@Override
+	public String buildFindCalcFoundRows(String tableName, Criteria criteria) {
+		SqlKey key = buildKey(FIND_CALC_FOUND_ROWS, tableName, criteria, null);
+		String cachedSql = getCachedSql(key);
+		if(cachedSql != null) {
+			return cachedSql;
+		}
+
+		StringBuilder sql = new StringBuilder();
+		sql.append("SELECT SQL_CALC_FOUND_ROWS ").append(buildColumns(criteria));
+		sql.append(" FROM `").append(tableName).append("` ").append(MAIN_TABLE_ALIAS);
+		addClauses(sql, criteria);
+		return cacheSql(key, sql.toString());
+	}
+
+	@Override
+	public String buildFoundRows() {
+		return "SELECT FOUND_ROWS()";
+	}
+
+	@Override
+	public String buildApproximateCount() {
+		return "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+	}
+
 	@Override
 	public String buildGet(String tableName, Criteria criteria, List<String> fields) {
+		SqlKey key = buildKey(GET, tableName, criteria, fields.toArray(new String[fields.size()]));
+		String cachedSql = getCachedSql(key);
+		if(cachedSql != null) {
+			return cachedSql;
+		}
+
 		StringBuilder columns = new StringBuilder();
 		for(String field: fields) {
 			StringUtil.appendTo(columns, field);
@@ -71,23 +205,35 @@ public class MySqlDialect extends SqlDialect {
 		sql.append("SELECT ").append(columns);
 		sql.append(" FROM `").append(tableName).append("` ").append(MAIN_TABLE_ALIAS);
 		addClauses(sql, criteria);
-		return sql.toString();
+		return cacheSql(key, sql.toString());
 	}
 	
 	@Override
 	public String buildCount(String tableName, Criteria criteria) {
+		SqlKey key = buildKey(COUNT, tableName, criteria, null);
+		String cachedSql = getCachedSql(key);
+		if(cachedSql != null) {
+			return cachedSql;
+		}
+
 		StringBuilder sql = new StringBuilder();
 		sql.append("SELECT COUNT(1) FROM `").append(tableName).append("` ").append(MAIN_TABLE_ALIAS);
 		addClauses(sql, criteria);
-		return sql.toString();
+		return cacheSql(key, sql.toString());
 	}
 	
 	@Override
 	public String buildExists(String tableName, Criteria criteria) {
+		SqlKey key = buildKey(EXISTS, tableName, criteria, null);
+		String cachedSql = getCachedSql(key);
+		if(cachedSql != null) {
+			return cachedSql;
+		}
+
 		StringBuilder sql = new StringBuilder();
 		sql.append("SELECT 1 FROM `").append(tableName).append("` ").append(MAIN_TABLE_ALIAS);
 		addClauses(sql, criteria);
-		return sql.toString();
+		return cacheSql(key, sql.toString());
 	}
 	
 	@Override
@@ -114,11 +260,12 @@ public class MySqlDialect extends SqlDialect {
 		}
 		if(criteria instanceof PagingCriteria) {
 			PagingCriteria pagingCriteria = (PagingCriteria) criteria;
-			if(pagingCriteria.isPagingEnabled()) {
-				sql.append(" LIMIT ");
-				sql.append(pagingCriteria.getPaging().getStartIndex());
-				sql.append(", ");
-				sql.append(pagingCriteria.getPaging().getPageSize());
+			// The paging values are bound (see PagingCriteria.getConditionsValues).
+			if(pagingCriteria.isPagingEnabled() && pagingCriteria.isKeysetEnabled()) {
+				sql.append(" LIMIT ?");
+			}
+			else if(pagingCriteria.isPagingEnabled()) {
+				sql.append(" LIMIT ?, ?");
 			}
 		}
 		else if(criteria.getResultLimit() != null) {
@@ -127,6 +274,27 @@ public class MySqlDialect extends SqlDialect {
 		}
 	}
 	
+	/**
+	 * Columns of the main table and of each fetched relationship (restricted to the selected ones).
+	 * 
+	 * @param criteria
+	 * @return
+	 */
+	private StringBuilder buildColumns(Criteria criteria) {
+		StringBuilder columns = new StringBuilder();
+		for(ColumnField column: criteria.getSelectedColumns(MAIN_TABLE_ALIAS, EntityMetadata.get(criteria.getModelEntityClass()))) {
+			StringUtil.appendTo(columns, MAIN_TABLE_ALIAS.concat(".").concat(column.getColumnName()));
+		}
+		if(criteria.hasJoin()) {
+			for(JoinColumnField joinField: criteria.getJoinFields()) {
+				for(ColumnField column: criteria.getSelectedColumns(joinField.getAlias(), EntityMetadata.get(joinField.getTable().getType()))) {
+					StringUtil.appendTo(columns, joinField.getAlias().concat(".").concat(column.getColumnName()));
+				}
+			}
+		}
+		return columns;
+	}
+
 	@Override
 	public StringBuilder buildJoins(List<JoinColumnField> joinFields) {
 		StringBuilder sql = new StringBuilder();
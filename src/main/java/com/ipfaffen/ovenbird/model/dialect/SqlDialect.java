@@ -3,7 +3,11 @@ package com.ipfaffen.ovenbird.model.dialect;
 import java.util.List;
 
 import com.ipfaffen.ovenbird.commons.ReflectionUtil;
+import com.ipfaffen.ovenbird.model.ModelConstants;
 import com.ipfaffen.ovenbird.model.criteria.Criteria;
+import com.ipfaffen.ovenbird.model.criteria.PagingCriteria;
+import com.ipfaffen.ovenbird.model.util.BoundedCache;
+import com.ipfaffen.ovenbird.model.util.ColumnField;
 import com.ipfaffen.ovenbird.model.util.FieldList;
 import com.ipfaffen.ovenbird.model.util.JoinColumnField;
 
@@ -12,6 +16,35 @@ import com.ipfaffen.ovenbird.model.util.JoinColumnField;
  */
 public abstract class SqlDialect {
 
+	protected static final int INSERT = 0;
+	protected static final int UPDATE = 1;
+	protected static final int DELETE = 2;
+	protected static final int FIND = 3;
+	protected static final int GET = 4;
+	protected static final int COUNT = 5;
+	protected static final int EXISTS = 6;
+	protected static final int FIND_WITH_TOTAL = 7;
+	protected static final int FIND_CALC_FOUND_ROWS = 8;
+	protected static final int INSERT_ROWS = 9;
+	protected static final int UPSERT = 10;
+
+	/**
+	 * Kinds of the bound paging limit in the sql key.
+	 */
+	private static final String PAGING_LIMIT = "paging";
+	private static final String KEYSET_LIMIT = "keyset";
+
+	/**
+	 * Column with the total rows in the sql built by {@link #buildFindWithTotal(String, Criteria)}.
+	 */
+	public static final String TOTAL_ROWS_COLUMN = "ovenbird_total_rows";
+
+	/**
+	 * Built sql statements by structure (see {@link SqlKey}), shared by all dialect instances (sized by
+	 * ModelConstants.SQL_CACHE_SIZE when the class is loaded).
+	 */
+	private static final BoundedCache<SqlKey, String> sqlCache = new BoundedCache<SqlKey, String>(ModelConstants.SQL_CACHE_SIZE);
+
 	/**
 	 * Build insert sql.
 	 * 
@@ -20,6 +53,42 @@ public abstract class SqlDialect {
 	 * @return
 	 */
 	public abstract String buildInsert(String tableName, FieldList fields);
+
+	/**
+	 * Build insert sql of many rows (the parameters are the fields of each row in sequence).
+	 * 
+	 * @param tableName
+	 * @param fields
+	 * @param rows
+	 * @return
+	 */
+	public abstract String buildInsert(String tableName, FieldList fields, int rows);
+
+	/**
+	 * Build insert sql that updates the existing record (by primary or unique key) instead of failing.<br>
+	 * The generated keys of the statement must return the id of the inserted or updated record.
+	 * 
+	 * @param tableName
+	 * @param fields
+	 * @param updateFields - fields overwritten in the existing record.
+	 * @return
+	 */
+	public abstract String buildUpsert(String tableName, FieldList fields, FieldList updateFields);
+
+	/**
+	 * @return sql of the last id generated (or set by the upsert, see buildUpsert) in the connection.
+	 */
+	public abstract String buildLastInsertId();
+
+	/**
+	 * @return sql of the max size (in bytes) of a packet accepted by the server.
+	 */
+	public abstract String buildMaxPacketSize();
+
+	/**
+	 * @return max number of parameters of a statement.
+	 */
+	public abstract int getMaxParameters();
 	
 	/**
 	 * Build update sql.
@@ -48,6 +117,34 @@ public abstract class SqlDialect {
 	 */
 	public abstract String buildFind(String tableName, Criteria criteria);
 	
+	/**
+	 * Build select sql with the total rows (ignoring the limit) in the column {@link #TOTAL_ROWS_COLUMN} of each row.
+	 * 
+	 * @param tableName
+	 * @param criteria
+	 * @return
+	 */
+	public abstract String buildFindWithTotal(String tableName, Criteria criteria);
+
+	/**
+	 * Build select sql that calculates the total rows (ignoring the limit) to be read by {@link #buildFoundRows()}.
+	 * 
+	 * @param tableName
+	 * @param criteria
+	 * @return
+	 */
+	public abstract String buildFindCalcFoundRows(String tableName, Criteria criteria);
+
+	/**
+	 * @return sql of the total rows calculated by the last {@link #buildFindCalcFoundRows(String, Criteria)}.
+	 */
+	public abstract String buildFoundRows();
+
+	/**
+	 * @return sql of the approximate number of records of a table (the table name is the parameter).
+	 */
+	public abstract String buildApproximateCount();
+
 	/**
 	 * @param tableName
 	 * @param criteria
@@ -93,6 +190,91 @@ public abstract class SqlDialect {
 	 */
 	public abstract StringBuilder buildJoins(List<JoinColumnField> joinFields);
 	
+	/**
+	 * Build the sql cache key of a statement.
+	 * 
+	 * @param operation
+	 * @param tableName
+	 * @param criteria - may be null.
+	 * @param fields - column names or expressions (may be null).
+	 * @return
+	 */
+	protected SqlKey buildKey(int operation, String tableName, Criteria criteria, String[] fields) {
+		if(criteria == null) {
+			return new SqlKey(getClass(), operation, tableName, fields);
+		}
+
+		String[] joins = null;
+		if(criteria.hasJoin()) {
+			List<JoinColumnField> joinFields = criteria.getJoinFields();
+			joins = new String[joinFields.size() * 2];
+			for(int i = 0; i < joinFields.size(); i++) {
+				joins[i * 2] = joinFields.get(i).getIdentifier();
+				joins[i * 2 + 1] = joinFields.get(i).getAlias();
+			}
+		}
+
+		// The paging limit is bound, so only its kind is part of the key.
+		Object limit = criteria.getResultLimit();
+		if(criteria instanceof PagingCriteria) {
+			PagingCriteria pagingCriteria = (PagingCriteria) criteria;
+			if(!pagingCriteria.isPagingEnabled()) {
+				limit = null;
+			}
+			else if(pagingCriteria.isKeysetEnabled()) {
+				limit = KEYSET_LIMIT;
+			}
+			else {
+				limit = PAGING_LIMIT;
+			}
+		}
+
+		return new SqlKey(getClass(), operation, tableName, fields, criteria.getModelEntityClass(),
+				criteria.hasCondition() ? criteria.getConditions() : null,
+				joins,
+				criteria.hasGrouping() ? criteria.getGroupings() : null,
+				criteria.hasOrder() ? criteria.getOrders() : null,
+				limit,
+				criteria.getSelectionKey());
+	}
+
+	/**
+	 * @param fields
+	 * @return column names of the fields.
+	 */
+	protected String[] getColumnNames(FieldList fields) {
+		String[] columnNames = new String[fields.size()];
+		int i = 0;
+		for(ColumnField field: fields) {
+			columnNames[i++] = field.getColumnName();
+		}
+		return columnNames;
+	}
+
+	/**
+	 * @param key
+	 * @return cached sql or null.
+	 */
+	protected String getCachedSql(SqlKey key) {
+		return sqlCache.get(key);
+	}
+
+	/**
+	 * @param key
+	 * @param sql
+	 * @return
+	 */
+	protected String cacheSql(SqlKey key, String sql) {
+		return sqlCache.put(key, sql);
+	}
+
+	/**
+	 * Remove all cached sql statements.
+	 */
+	public static void clearSqlCache() {
+		sqlCache.clear();
+	}
+
 	/**
 	 * @param driver
 	 * @return
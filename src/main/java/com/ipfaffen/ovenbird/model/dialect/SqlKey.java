@@ -0,0 +1,40 @@
+package com.ipfaffen.ovenbird.model.dialect;
+
+import java.util.Arrays;
+
+/**
+ * Structural fingerprint of a sql statement (operation, table, conditions, joins, groupings, orders, limit and
+ * fields), used as key of the sql cache.
+ * 
+ * @author Isaias Pfaffenseller
+ */
+public final class SqlKey {
+
+	private final Object[] parts;
+	private final int hash;
+
+	/**
+	 * @param parts - strings, numbers, classes or arrays of them.
+	 */
+	public SqlKey(Object... parts) {
+		this.parts = parts;
+		this.hash = Arrays.deepHashCode(parts);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if(this == obj) {
+			return true;
+		}
+		if(!(obj instanceof SqlKey)) {
+			return false;
+		}
+		SqlKey other = (SqlKey) obj;
+		return hash == other.hash && Arrays.deepEquals(parts, other.parts);
+	}
+}
@@ -0,0 +1,80 @@
+package com.ipfaffen.ovenbird.model.mapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import com.ipfaffen.ovenbird.model.codec.TypeCodec;
+import com.ipfaffen.ovenbird.model.codec.TypeCodecRegistry;
+import com.ipfaffen.ovenbird.model.metadata.EntityMetadata;
+import com.ipfaffen.ovenbird.model.metadata.FieldAccessor;
+import com.ipfaffen.ovenbird.model.util.ColumnField;
+
+/**
+ * Row mapper specialized for a dto class (columns are read by their name, without alias).
+ * 
+ * @author Isaias Pfaffenseller
+ */
+public class DtoRowMapper<T> implements RowMapper<T> {
+
+	private final EntityMetadata metadata;
+	private final String[] labels;
+	private final FieldAccessor[] accessors;
+	private final TypeCodec[] codecs;
+
+	/**
+	 * @param dtoClass
+	 */
+	public DtoRowMapper(Class<T> dtoClass) {
+		metadata = EntityMetadata.get(dtoClass);
+		List<ColumnField> columns = metadata.getColumns();
+		labels = new String[columns.size()];
+		accessors = new FieldAccessor[columns.size()];
+		codecs = new TypeCodec[columns.size()];
+		for(int i = 0; i < labels.length; i++) {
+			labels[i] = columns.get(i).getColumnName();
+			accessors[i] = columns.get(i).getAccessor();
+			codecs[i] = TypeCodecRegistry.get(columns.get(i).getType());
+		}
+	}
+
+	@Override
+	public T map(ResultSet resultSet) throws SQLException {
+		return bind(resultSet).map(resultSet);
+	}
+
+	@Override
+	public T map(ResultSet resultSet, T object) throws SQLException {
+		return bind(resultSet).map(resultSet, object);
+	}
+
+	@Override
+	public RowMapper<T> bind(ResultSet resultSet) throws SQLException {
+		final int[] indexes = new int[labels.length];
+		for(int i = 0; i < labels.length; i++) {
+			indexes[i] = resultSet.findColumn(labels[i]);
+		}
+
+		return new RowMapper<T>() {
+			@Override
+			public T map(ResultSet resultSet) throws SQLException {
+				return map(resultSet, null);
+			}
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public T map(ResultSet resultSet, T object) throws SQLException {
+				Object dto = (object != null) ? object : metadata.newInstance();
+				for(int i = 0; i < indexes.length; i++) {
+					accessors[i].set(dto, codecs[i].get(resultSet, indexes[i]));
+				}
+				return (T) dto;
+			}
+
+			@Override
+			public RowMapper<T> bind(ResultSet resultSet) throws SQLException {
+				return DtoRowMapper.this.bind(resultSet);
+			}
+		};
+	}
+}
@@ -0,0 +1,194 @@
+package com.ipfaffen.ovenbird.model.mapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import com.ipfaffen.ovenbird.model.ModelConstants;
+import com.ipfaffen.ovenbird.model.codec.TypeCodec;
+import com.ipfaffen.ovenbird.model.codec.TypeCodecRegistry;
+import com.ipfaffen.ovenbird.model.criteria.Criteria;
+import com.ipfaffen.ovenbird.model.metadata.EntityMetadata;
+import com.ipfaffen.ovenbird.model.metadata.FieldAccessor;
+import com.ipfaffen.ovenbird.model.util.ColumnField;
+import com.ipfaffen.ovenbird.model.util.JoinColumnField;
+
+/**
+ * Row mapper specialized for an entity class, a join shape (the fetched relationships and their aliases) and the
+ * selected columns (see {@link Criteria#select(String...)}).<br>
+ * Column labels, accessors and the relationship tree are resolved when the mapper is built and the column indexes
+ * once per result set (see {@link #bind(ResultSet)}), so mapping a row only reads the columns by index and assigns
+ * the fields.
+ * 
+ * @author Isaias Pfaffenseller
+ */
+public class EntityRowMapper<T> implements RowMapper<T> {
+
+	private final TableMapper main;
+	private final TableMapper[] joins;
+	private final int[] joinParents;
+	private final FieldAccessor[] joinAccessors;
+
+	/**
+	 * @param entityClass
+	 * @param joinFields - sorted by identifier (as given by the criteria).
+	 * @param criteria - selected columns.
+	 */
+	public EntityRowMapper(Class<T> entityClass, List<JoinColumnField> joinFields, Criteria criteria) {
+		main = new TableMapper(EntityMetadata.get(entityClass), ModelConstants.MAIN_TABLE_ALIAS, criteria);
+		joins = new TableMapper[joinFields.size()];
+		joinParents = new int[joinFields.size()];
+		joinAccessors = new FieldAccessor[joinFields.size()];
+
+		for(int i = 0; i < joins.length; i++) {
+			JoinColumnField joinField = joinFields.get(i);
+			joins[i] = new TableMapper(EntityMetadata.get(joinField.getTable().getType()), joinField.getAlias(), criteria);
+			joinAccessors[i] = joinField.getBaseFieldAccessor();
+			joinParents[i] = joinFields.indexOf(joinField.getBaseJoinField());
+		}
+	}
+
+	@Override
+	public T map(ResultSet resultSet) throws SQLException {
+		return bind(resultSet).map(resultSet);
+	}
+
+	@Override
+	public T map(ResultSet resultSet, T object) throws SQLException {
+		return bind(resultSet).map(resultSet, object);
+	}
+
+	@Override
+	public RowMapper<T> bind(ResultSet resultSet) throws SQLException {
+		int[][] joinIndexes = new int[joins.length][];
+		for(int i = 0; i < joins.length; i++) {
+			joinIndexes[i] = joins[i].resolve(resultSet);
+		}
+		return new BoundMapper(main.resolve(resultSet), joinIndexes);
+	}
+
+	/**
+	 * Mapper bound to the column indexes of a result set.
+	 */
+	private class BoundMapper implements RowMapper<T> {
+		private final int[] mainIndexes;
+		private final int[][] joinIndexes;
+
+		/**
+		 * @param mainIndexes
+		 * @param joinIndexes
+		 */
+		private BoundMapper(int[] mainIndexes, int[][] joinIndexes) {
+			this.mainIndexes = mainIndexes;
+			this.joinIndexes = joinIndexes;
+		}
+
+		@Override
+		public T map(ResultSet resultSet) throws SQLException {
+			return map(resultSet, null);
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public T map(ResultSet resultSet, T object) throws SQLException {
+			Object entity = main.map(resultSet, mainIndexes, object);
+			if(joins.length == 0) {
+				return (T) entity;
+			}
+
+			Object[] references = new Object[joins.length];
+			for(int i = 0; i < joins.length; i++) {
+				Object base = (joinParents[i] < 0) ? entity : references[joinParents[i]];
+				if(base == null) {
+					// Base relationship doesn't exist so neither does this one.
+					continue;
+				}
+				if(!joins[i].exists(resultSet, joinIndexes[i])) {
+					// If id is null it means that doesn't exist the relationship.
+					if(object != null) {
+						joinAccessors[i].set(base, null);
+					}
+					continue;
+				}
+				references[i] = joins[i].map(resultSet, joinIndexes[i], (object != null) ? joinAccessors[i].get(base) : null);
+				joinAccessors[i].set(base, references[i]);
+			}
+			return (T) entity;
+		}
+
+		@Override
+		public RowMapper<T> bind(ResultSet resultSet) throws SQLException {
+			return EntityRowMapper.this.bind(resultSet);
+		}
+	}
+
+	/**
+	 * Maps the columns of one table (main or joined) of the row.
+	 */
+	private static class TableMapper {
+		private final EntityMetadata metadata;
+		private final String[] labels;
+		private final FieldAccessor[] accessors;
+		private final TypeCodec[] codecs;
+		private final int idPosition;
+
+		/**
+		 * @param metadata
+		 * @param alias
+		 * @param criteria
+		 */
+		private TableMapper(EntityMetadata metadata, String alias, Criteria criteria) {
+			List<ColumnField> columns = criteria.getSelectedColumns(alias, metadata);
+			this.metadata = metadata;
+			this.labels = new String[columns.size()];
+			this.accessors = new FieldAccessor[columns.size()];
+			this.codecs = new TypeCodec[columns.size()];
+			for(int i = 0; i < labels.length; i++) {
+				labels[i] = alias + "." + columns.get(i).getColumnName();
+				accessors[i] = columns.get(i).getAccessor();
+				codecs[i] = TypeCodecRegistry.get(columns.get(i).getType());
+			}
+			this.idPosition = columns.indexOf(metadata.getIdColumn());
+		}
+
+		/**
+		 * @param resultSet
+		 * @return result set index of each column.
+		 * @throws SQLException
+		 */
+		private int[] resolve(ResultSet resultSet) throws SQLException {
+			int[] indexes = new int[labels.length];
+			for(int i = 0; i < labels.length; i++) {
+				indexes[i] = resultSet.findColumn(labels[i]);
+			}
+			return indexes;
+		}
+
+		/**
+		 * @param resultSet
+		 * @param indexes
+		 * @return
+		 * @throws SQLException
+		 */
+		private boolean exists(ResultSet resultSet, int[] indexes) throws SQLException {
+			return idPosition < 0 || codecs[idPosition].get(resultSet, indexes[idPosition]) != null;
+		}
+
+		/**
+		 * @param resultSet
+		 * @param indexes
+		 * @param object - object to be reused (null to create a new one).
+		 * @return
+		 * @throws SQLException
+		 */
+		private Object map(ResultSet resultSet, int[] indexes, Object object) throws SQLException {
+			if(object == null) {
+				object = metadata.newInstance();
+			}
+			for(int i = 0; i < indexes.length; i++) {
+				accessors[i].set(object, codecs[i].get(resultSet, indexes[i]));
+			}
+			return object;
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package com.ipfaffen.ovenbird.model.mapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ipfaffen.ovenbird.commons.ReflectionUtil;
+import com.ipfaffen.ovenbird.model.ModelConstants;
+import com.ipfaffen.ovenbird.model.ModelEntity;
+import com.ipfaffen.ovenbird.model.ModelUtil;
+import com.ipfaffen.ovenbird.model.criteria.Criteria;
+import com.ipfaffen.ovenbird.model.metadata.EntityMetadata;
+import com.ipfaffen.ovenbird.model.util.ColumnField;
+import com.ipfaffen.ovenbird.model.util.JoinColumnField;
+
+/**
+ * Row mapper that goes through the generic {@link ModelUtil} population (used when the specialized mappers are
+ * disabled, see {@link com.ipfaffen.ovenbird.model.ModelConstants#USE_ROW_MAPPERS}).
+ * 
+ * @author Isaias Pfaffenseller
+ */
+public class ReflectiveEntityRowMapper<T extends ModelEntity<?>> implements RowMapper<T> {
+
+	private final Class<T> entityClass;
+	private final List<JoinColumnField> joinFields;
+	private final List<ColumnField> columns;
+	private final List<List<ColumnField>> joinColumns;
+
+	/**
+	 * @param entityClass
+	 * @param joinFields
+	 * @param criteria - selected columns.
+	 */
+	public ReflectiveEntityRowMapper(Class<T> entityClass, List<JoinColumnField> joinFields, Criteria criteria) {
+		this.entityClass = entityClass;
+		this.joinFields = joinFields;
+		this.columns = criteria.getSelectedColumns(ModelConstants.MAIN_TABLE_ALIAS, EntityMetadata.get(entityClass));
+		this.joinColumns = new ArrayList<List<ColumnField>>();
+		for(JoinColumnField joinField: joinFields) {
+			joinColumns.add(criteria.getSelectedColumns(joinField.getAlias(), EntityMetadata.get(joinField.getTable().getType())));
+		}
+	}
+
+	@Override
+	public T map(ResultSet resultSet) throws SQLException {
+		return map(resultSet, null);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T map(ResultSet resultSet, T object) throws SQLException {
+		T entity = (object != null) ? object : (T) ReflectionUtil.newInstance(entityClass);
+		ModelUtil.populateFields(entity, columns, resultSet);
+		if(!joinFields.isEmpty()) {
+			if(object != null) {
+				// Relationships are created again.
+				for(JoinColumnField joinField: joinFields) {
+					if(joinField.getDepthLevel() == 0) {
+						joinField.getBaseFieldAccessor().set(entity, null);
+					}
+				}
+			}
+			ModelUtil.populateJoinFields(entity, joinFields, joinColumns, resultSet);
+		}
+		return entity;
+	}
+
+	@Override
+	public RowMapper<T> bind(ResultSet resultSet) throws SQLException {
+		// Columns are read by label.
+		return this;
+	}
+}
@@ -0,0 +1,17 @@
+package com.ipfaffen.ovenbird.model.mapper;
+
+/**
+ * Callback that receives each mapped row of a find (see ModelDao.find(Criteria, RowHandler)), so the rows are
+ * processed as they are read instead of being accumulated in a list.<br>
+ * When the find reuses the row object, it is valid only until the callback returns.
+ *
+ * @author Isaias Pfaffenseller
+ */
+public interface RowHandler<T> {
+
+	/**
+	 * @param object - mapped row.
+	 * @throws Exception
+	 */
+	public void handle(T object) throws Exception;
+}
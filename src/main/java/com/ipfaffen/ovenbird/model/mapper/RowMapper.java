@@ -0,0 +1,43 @@
+package com.ipfaffen.ovenbird.model.mapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a result set to an object.<br>
+ * Implementations are immutable and can be shared between threads.
+ * 
+ * @author Isaias Pfaffenseller
+ */
+public interface RowMapper<T> {
+
+	/**
+	 * @param resultSet - positioned on the row to be mapped.
+	 * @return
+	 * @throws SQLException
+	 */
+	public T map(ResultSet resultSet) throws SQLException;
+
+	/**
+	 * Map the current row into the given object (reused between rows) instead of a new instance.<br>
+	 * Only the columns read by the mapper are assigned, and fetched relationships are reused as well (or cleared when
+	 * the row has none).
+	 * 
+	 * @param resultSet - positioned on the row to be mapped.
+	 * @param object - object to be reused (null to create a new one).
+	 * @return the given object (or the new one).
+	 * @throws SQLException
+	 */
+	public T map(ResultSet resultSet, T object) throws SQLException;
+
+	/**
+	 * Resolve the column indexes of the result set once, so the returned mapper reads the rows by index instead of
+	 * looking up each column label.<br>
+	 * The returned mapper is valid only for the given result set (or another one with the same columns).
+	 * 
+	 * @param resultSet
+	 * @return
+	 * @throws SQLException
+	 */
+	public RowMapper<T> bind(ResultSet resultSet) throws SQLException;
+}
@@ -0,0 +1,100 @@
+package com.ipfaffen.ovenbird.model.mapper;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.ipfaffen.ovenbird.model.ModelConstants;
+import com.ipfaffen.ovenbird.model.ModelDto;
+import com.ipfaffen.ovenbird.model.ModelEntity;
+import com.ipfaffen.ovenbird.model.criteria.Criteria;
+import com.ipfaffen.ovenbird.model.util.JoinColumnField;
+
+/**
+ * Builds and caches the row mappers (one per entity class and join shape).<br>
+ * The mappers are kept by class (ClassValue), so classes with the same name in different class loaders don't share
+ * them and the cache doesn't hold the class loaders.
+ * 
+ * @author Isaias Pfaffenseller
+ */
+public final class RowMapperFactory {
+
+	/**
+	 * Mappers of each class by join shape (see buildKey).
+	 */
+	private static final ClassValue<ConcurrentMap<String, RowMapper<?>>> mappers = new ClassValue<ConcurrentMap<String, RowMapper<?>>>() {
+		@Override
+		protected ConcurrentMap<String, RowMapper<?>> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<String, RowMapper<?>>();
+		}
+	};
+
+	/**
+	 * Key of the mapper that selects all columns without joins.
+	 */
+	private static final String DEFAULT_KEY = "";
+
+	private RowMapperFactory() {
+	}
+
+	/**
+	 * Get the row mapper of the entity class for the joins of the given criteria.
+	 * 
+	 * @param entityClass
+	 * @param criteria
+	 * @return
+	 */
+	public static <T extends ModelEntity<?>> RowMapper<T> getEntityMapper(Class<T> entityClass, Criteria criteria) {
+		List<JoinColumnField> joinFields = criteria.hasJoin() ? criteria.getJoinFields() : Collections.<JoinColumnField>emptyList();
+		if(!ModelConstants.USE_ROW_MAPPERS) {
+			return new ReflectiveEntityRowMapper<T>(entityClass, joinFields, criteria);
+		}
+
+		ConcurrentMap<String, RowMapper<?>> classMappers = mappers.get(entityClass);
+		String key = buildKey(joinFields, criteria.getSelectionKey());
+		@SuppressWarnings("unchecked")
+		RowMapper<T> mapper = (RowMapper<T>) classMappers.get(key);
+		if(mapper == null) {
+			mapper = new EntityRowMapper<T>(entityClass, joinFields, criteria);
+			classMappers.putIfAbsent(key, mapper);
+		}
+		return mapper;
+	}
+
+	/**
+	 * @param dtoClass
+	 * @return
+	 */
+	public static <T extends ModelDto<?>> RowMapper<T> getDtoMapper(Class<T> dtoClass) {
+		ConcurrentMap<String, RowMapper<?>> classMappers = mappers.get(dtoClass);
+		@SuppressWarnings("unchecked")
+		RowMapper<T> mapper = (RowMapper<T>) classMappers.get(DEFAULT_KEY);
+		if(mapper == null) {
+			mapper = new DtoRowMapper<T>(dtoClass);
+			classMappers.putIfAbsent(DEFAULT_KEY, mapper);
+		}
+		return mapper;
+	}
+
+	/**
+	 * Key structure: #[identifier]:[alias]#...[@selection]
+	 * 
+	 * @param joinFields
+	 * @param selectionKey - null if all columns are selected.
+	 * @return
+	 */
+	private static String buildKey(List<JoinColumnField> joinFields, String selectionKey) {
+		if(joinFields.isEmpty() && selectionKey == null) {
+			return DEFAULT_KEY;
+		}
+		StringBuilder key = new StringBuilder();
+		for(JoinColumnField joinField: joinFields) {
+			key.append('#').append(joinField.getIdentifier()).append(':').append(joinField.getAlias());
+		}
+		if(selectionKey != null) {
+			key.append('@').append(selectionKey);
+		}
+		return key.toString();
+	}
+}
@@ -0,0 +1,433 @@
+package com.ipfaffen.ovenbird.model.metadata;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.ipfaffen.ovenbird.commons.ReflectionUtil;
+import com.ipfaffen.ovenbird.model.annotation.Column;
+import com.ipfaffen.ovenbird.model.annotation.JoinCollection;
+import com.ipfaffen.ovenbird.model.annotation.JoinColumn;
+import com.ipfaffen.ovenbird.model.annotation.Table;
+import com.ipfaffen.ovenbird.model.util.ColumnField;
+import com.ipfaffen.ovenbird.model.util.JoinCollectionField;
+import com.ipfaffen.ovenbird.model.util.JoinColumnField;
+import com.ipfaffen.ovenbird.model.util.TableEntity;
+
+/**
+ * Mapping description of an entity (or dto) class.<br>
+ * It is built only once per class and then shared, so the annotations are read a single time (or never, when the
+ * class has {@link GeneratedMetadata}). The column and join field descriptions kept here are shared between threads
+ * and must not be modified (copy them first).
+ *
+ * @author Isaias Pfaffenseller
+ */
+public final class EntityMetadata {
+
+	private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+	private static final ClassValue<EntityMetadata> registry = new ClassValue<EntityMetadata>() {
+		@Override
+		protected EntityMetadata computeValue(Class<?> type) {
+			GeneratedMetadata generated = findGenerated(type);
+			if(generated != null) {
+				return new EntityMetadata(type, generated);
+			}
+			return new EntityMetadata(type);
+		}
+	};
+
+	private final Class<?> type;
+	private final GeneratedMetadata generated;
+	private final MethodHandle constructor;
+	private final TableEntity table;
+	private final List<ColumnField> columns;
+	private final Map<String, ColumnField> columnsByAttribute;
+	private final ColumnField idColumn;
+	private final Map<String, Class<?>> joinTypes;
+	private final Map<String, String> joinColumns;
+	private final Map<String, Field> joinDeclaredFields;
+	private final Map<String, FieldAccessor> joinAccessors;
+	private final ConcurrentMap<String, JoinColumnField> joinFields;
+	private final Map<String, JoinCollectionField> joinCollections;
+
+	/**
+	 * Build metadata scanning the class annotations.
+	 *
+	 * @param type
+	 */
+	private EntityMetadata(Class<?> type) {
+		this.type = type;
+		this.generated = null;
+		this.constructor = findConstructor(type);
+
+		Table tableAnnotation = type.getAnnotation(Table.class);
+		this.table = (tableAnnotation == null) ? null : buildTable(type, tableAnnotation.name());
+
+		FieldAccessorFactory accessorFactory = FieldAccessorFactory.getInstance();
+		List<ColumnField> columnList = new ArrayList<ColumnField>();
+		this.joinTypes = new LinkedHashMap<String, Class<?>>();
+		this.joinColumns = new HashMap<String, String>();
+		this.joinDeclaredFields = new HashMap<String, Field>();
+		this.joinAccessors = new HashMap<String, FieldAccessor>();
+
+		for(Field declaredField: type.getDeclaredFields()) {
+			Column column = declaredField.getAnnotation(Column.class);
+			if(column != null) {
+				declaredField.setAccessible(true);
+
+				ColumnField field = new ColumnField();
+				field.setDeclaredField(declaredField);
+				field.setAccessor(accessorFactory.create(declaredField));
+				field.setAttributeName(declaredField.getName());
+				field.setColumnName(column.name());
+				field.setType(declaredField.getType());
+				field.setGenericType(declaredField.getGenericType().toString());
+				field.setIsId(column.isKey());
+				columnList.add(field);
+				continue;
+			}
+
+			JoinColumn joinColumn = declaredField.getAnnotation(JoinColumn.class);
+			if(joinColumn != null) {
+				declaredField.setAccessible(true);
+
+				String attributeName = declaredField.getName();
+				joinTypes.put(attributeName, declaredField.getType());
+				joinColumns.put(attributeName, joinColumn.name());
+				joinDeclaredFields.put(attributeName, declaredField);
+				joinAccessors.put(attributeName, accessorFactory.create(declaredField));
+			}
+		}
+
+		this.columns = Collections.unmodifiableList(columnList);
+		this.columnsByAttribute = indexColumns(columnList);
+		this.idColumn = findIdColumn(columnList);
+		this.joinFields = new ConcurrentHashMap<String, JoinColumnField>();
+		this.joinCollections = scanJoinCollections(type);
+	}
+
+	/**
+	 * Build metadata from the generated description.
+	 *
+	 * @param type
+	 * @param generated
+	 */
+	private EntityMetadata(Class<?> type, GeneratedMetadata generated) {
+		this.type = type;
+		this.generated = generated;
+		this.constructor = null;
+
+		String tableName = generated.getTableName();
+		this.table = (tableName == null) ? null : buildTable(type, tableName);
+
+		List<ColumnField> columnList = Arrays.asList(generated.getColumns());
+		this.columns = Collections.unmodifiableList(columnList);
+		this.columnsByAttribute = indexColumns(columnList);
+		this.idColumn = findIdColumn(columnList);
+
+		String[] joinAttributes = generated.getJoinAttributes();
+		String[] joinColumnNames = generated.getJoinColumns();
+		Class<?>[] joinClasses = generated.getJoinTypes();
+		FieldAccessor[] joinFieldAccessors = generated.getJoinAccessors();
+
+		this.joinTypes = new LinkedHashMap<String, Class<?>>();
+		this.joinColumns = new HashMap<String, String>();
+		this.joinDeclaredFields = Collections.emptyMap();
+		this.joinAccessors = new HashMap<String, FieldAccessor>();
+		for(int i = 0; i < joinAttributes.length; i++) {
+			joinTypes.put(joinAttributes[i], joinClasses[i]);
+			joinColumns.put(joinAttributes[i], joinColumnNames[i]);
+			joinAccessors.put(joinAttributes[i], joinFieldAccessors[i]);
+		}
+		this.joinFields = new ConcurrentHashMap<String, JoinColumnField>();
+		this.joinCollections = scanJoinCollections(type);
+	}
+
+	/**
+	 * Get the metadata of the given class (built on first call).
+	 *
+	 * @param type
+	 * @return
+	 */
+	public static EntityMetadata get(Class<?> type) {
+		return registry.get(type);
+	}
+
+	/**
+	 * @return
+	 */
+	public Class<?> getType() {
+		return type;
+	}
+
+	/**
+	 * @return true if the metadata comes from {@link GeneratedMetadata}.
+	 */
+	public boolean isGenerated() {
+		return generated != null;
+	}
+
+	/**
+	 * Create a new instance through the no-arg constructor.
+	 *
+	 * @return
+	 */
+	public Object newInstance() {
+		if(generated != null) {
+			return generated.newInstance();
+		}
+		if(constructor == null) {
+			return ReflectionUtil.newInstance(type);
+		}
+		try {
+			return (Object) constructor.invokeExact();
+		}
+		catch(Throwable e) {
+			throw new RuntimeException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * @return copy of the table entity (TableEntity is mutable and the metadata is shared) or null if the class is not
+	 * annotated with {@link Table}.
+	 */
+	public TableEntity getTable() {
+		return (table == null) ? null : buildTable(table.getType(), table.getTableName());
+	}
+
+	/**
+	 * @return
+	 */
+	public String getTableName() {
+		return (table == null) ? null : table.getTableName();
+	}
+
+	/**
+	 * @return all column fields in declaration order.
+	 */
+	public List<ColumnField> getColumns() {
+		return columns;
+	}
+
+	/**
+	 * @param attributeName
+	 * @return column field or null if the attribute is not a column.
+	 */
+	public ColumnField getColumn(String attributeName) {
+		return columnsByAttribute.get(attributeName);
+	}
+
+	/**
+	 * @param attributeName
+	 * @return
+	 */
+	public String getColumnName(String attributeName) {
+		ColumnField column = columnsByAttribute.get(attributeName);
+		if(column == null) {
+			throw new RuntimeException("Invalid field.");
+		}
+		return column.getColumnName();
+	}
+
+	/**
+	 * @return id column field or null if there is no key column.
+	 */
+	public ColumnField getIdColumn() {
+		return idColumn;
+	}
+
+	/**
+	 * Get join field description. Criteria state (identifier, depth and alias) is not filled.
+	 *
+	 * @param attributeName
+	 * @return
+	 */
+	public JoinColumnField getJoinField(String attributeName) {
+		JoinColumnField joinField = joinFields.get(attributeName);
+		if(joinField == null) {
+			joinField = buildJoinField(attributeName);
+			JoinColumnField existing = joinFields.putIfAbsent(attributeName, joinField);
+			if(existing != null) {
+				joinField = existing;
+			}
+		}
+		return joinField;
+	}
+
+	/**
+	 * @return all join fields.
+	 */
+	public List<JoinColumnField> getJoinFields() {
+		List<JoinColumnField> joinFieldList = new ArrayList<JoinColumnField>();
+		for(String attributeName: joinTypes.keySet()) {
+			joinFieldList.add(getJoinField(attributeName));
+		}
+		return joinFieldList;
+	}
+
+	/**
+	 * @param attributeName
+	 * @return collection relationship description (see JoinCollection).
+	 */
+	public JoinCollectionField getJoinCollection(String attributeName) {
+		JoinCollectionField joinCollection = joinCollections.get(attributeName);
+		if(joinCollection == null) {
+			throw new RuntimeException(String.format("Attribute %s of %s is not a join collection.", attributeName, type.getName()));
+		}
+		return joinCollection;
+	}
+
+	/**
+	 * @param fieldType
+	 * @return all join fields referencing the given type.
+	 */
+	public List<JoinColumnField> getJoinFields(Class<?> fieldType) {
+		List<JoinColumnField> joinFieldList = new ArrayList<JoinColumnField>();
+		for(Map.Entry<String, Class<?>> joinType: joinTypes.entrySet()) {
+			if(joinType.getValue() == fieldType) {
+				joinFieldList.add(getJoinField(joinType.getKey()));
+			}
+		}
+		return joinFieldList;
+	}
+
+	/**
+	 * @param attributeName
+	 * @return
+	 */
+	private JoinColumnField buildJoinField(String attributeName) {
+		try {
+			ColumnField baseIdColumn = columnsByAttribute.get(joinColumns.get(attributeName));
+			EntityMetadata reference = get(joinTypes.get(attributeName));
+
+			JoinColumnField joinField = new JoinColumnField();
+			joinField.setBaseTable(getTable());
+			joinField.setBaseIdColumn(baseIdColumn);
+			joinField.setBaseField(joinDeclaredFields.get(attributeName));
+			joinField.setBaseFieldAccessor(joinAccessors.get(attributeName));
+			joinField.setTable(reference.getTable());
+			joinField.setIdColumn(reference.getIdColumn());
+
+			if(baseIdColumn == null || reference.getTable() == null) {
+				throw new IllegalStateException();
+			}
+			return joinField;
+		}
+		catch(Exception e) {
+			throw new RuntimeException("Invalid join field.");
+		}
+	}
+
+	/**
+	 * @param type
+	 * @param tableName
+	 * @return
+	 */
+	private static TableEntity buildTable(Class<?> type, String tableName) {
+		TableEntity tableEntity = new TableEntity();
+		tableEntity.setTableName(tableName);
+		tableEntity.setType(type);
+		return tableEntity;
+	}
+
+	/**
+	 * @param columnList
+	 * @return
+	 */
+	private static Map<String, ColumnField> indexColumns(List<ColumnField> columnList) {
+		Map<String, ColumnField> columnMap = new HashMap<String, ColumnField>();
+		for(ColumnField column: columnList) {
+			columnMap.put(column.getAttributeName(), column);
+		}
+		return columnMap;
+	}
+
+	/**
+	 * Collections are always read from the annotations (they are not part of the generated metadata).
+	 * 
+	 * @param type
+	 * @return collection relationships by attribute name.
+	 */
+	private static Map<String, JoinCollectionField> scanJoinCollections(Class<?> type) {
+		Map<String, JoinCollectionField> joinCollectionMap = new HashMap<String, JoinCollectionField>();
+		for(Field declaredField: type.getDeclaredFields()) {
+			JoinCollection joinCollection = declaredField.getAnnotation(JoinCollection.class);
+			if(joinCollection == null) {
+				continue;
+			}
+			if(!(declaredField.getGenericType() instanceof ParameterizedType)) {
+				throw new RuntimeException(String.format("Join collection %s of %s must declare the entity type (List<Entity>).", declaredField.getName(), type.getName()));
+			}
+			declaredField.setAccessible(true);
+
+			JoinCollectionField field = new JoinCollectionField();
+			field.setAttributeName(declaredField.getName());
+			field.setType((Class<?>) ((ParameterizedType) declaredField.getGenericType()).getActualTypeArguments()[0]);
+			field.setMappedBy(joinCollection.mappedBy());
+			field.setAccessor(FieldAccessorFactory.getInstance().create(declaredField));
+			joinCollectionMap.put(declaredField.getName(), field);
+		}
+		return joinCollectionMap;
+	}
+
+	/**
+	 * @param columnList
+	 * @return first key column or null.
+	 */
+	private static ColumnField findIdColumn(List<ColumnField> columnList) {
+		for(ColumnField column: columnList) {
+			if(column.isId()) {
+				return column;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param type
+	 * @return bound no-arg constructor or null if it cannot be bound.
+	 */
+	private static MethodHandle findConstructor(Class<?> type) {
+		try {
+			Constructor<?> declaredConstructor = type.getDeclaredConstructor();
+			declaredConstructor.setAccessible(true);
+			return MethodHandles.lookup().unreflectConstructor(declaredConstructor).asType(CONSTRUCTOR_TYPE);
+		}
+		catch(Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @param type
+	 * @return generated metadata of the class or null if it was not generated.
+	 */
+	private static GeneratedMetadata findGenerated(Class<?> type) {
+		try {
+			Class<?> generatedClass = Class.forName(type.getName() + GeneratedMetadata.CLASS_SUFFIX, true, type.getClassLoader());
+			if(!GeneratedMetadata.class.isAssignableFrom(generatedClass)) {
+				return null;
+			}
+			return (GeneratedMetadata) generatedClass.getDeclaredConstructor().newInstance();
+		}
+		catch(Exception e) {
+			return null;
+		}
+		catch(LinkageError e) {
+			return null;
+		}
+	}
+}
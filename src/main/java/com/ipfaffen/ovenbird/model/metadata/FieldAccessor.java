@@ -0,0 +1,23 @@
+package com.ipfaffen.ovenbird.model.metadata;
+
+/**
+ * Reads and writes the value of a mapped field.
+ * 
+ * @author Isaias Pfaffenseller
+ */
+public interface FieldAccessor {
+
+	/**
+	 * @param object
+	 * @return field value.
+	 */
+	public Object get(Object object);
+
+	/**
+	 * Null values assigned to primitive fields set the primitive default value.
+	 * 
+	 * @param object
+	 * @param value
+	 */
+	public void set(Object object, Object value);
+}
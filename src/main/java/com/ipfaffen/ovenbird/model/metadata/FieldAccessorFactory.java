@@ -0,0 +1,77 @@
+package com.ipfaffen.ovenbird.model.metadata;
+
+import java.lang.reflect.Field;
+
+/**
+ * Creates the field accessors used by the entity metadata.<br>
+ * The default factory uses method handles and falls back to reflection when the field cannot be unreflected. A
+ * different factory can be set before the first entity class is used.
+ * 
+ * @author Isaias Pfaffenseller
+ */
+public abstract class FieldAccessorFactory {
+
+	private static volatile FieldAccessorFactory instance = new FieldAccessorFactory() {
+		@Override
+		public FieldAccessor create(Field field) {
+			try {
+				return new MethodHandleFieldAccessor(field);
+			}
+			catch(Exception e) {
+				return new ReflectionFieldAccessor(field);
+			}
+		}
+	};
+
+	/**
+	 * @param field
+	 * @return
+	 */
+	public abstract FieldAccessor create(Field field);
+
+	/**
+	 * @return
+	 */
+	public static FieldAccessorFactory getInstance() {
+		return instance;
+	}
+
+	/**
+	 * @param factory
+	 */
+	public static void setInstance(FieldAccessorFactory factory) {
+		instance = factory;
+	}
+
+	/**
+	 * @param type
+	 * @return default value of the given primitive type or null if it is not primitive.
+	 */
+	public static Object getDefaultValue(Class<?> type) {
+		if(!type.isPrimitive()) {
+			return null;
+		}
+		if(type == boolean.class) {
+			return Boolean.FALSE;
+		}
+		if(type == char.class) {
+			return Character.valueOf((char) 0);
+		}
+		if(type == byte.class) {
+			return Byte.valueOf((byte) 0);
+		}
+		if(type == short.class) {
+			return Short.valueOf((short) 0);
+		}
+		if(type == int.class) {
+			return Integer.valueOf(0);
+		}
+		if(type == long.class) {
+			return Long.valueOf(0L);
+		}
+		if(type == float.class) {
+			return Float.valueOf(0F);
+		}
+		return Double.valueOf(0D);
+	}
+}
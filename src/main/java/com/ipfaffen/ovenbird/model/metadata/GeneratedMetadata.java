@@ -0,0 +1,91 @@
+package com.ipfaffen.ovenbird.model.metadata;
+
+import com.ipfaffen.ovenbird.model.util.ColumnField;
+
+/**
+ * Base class of the metadata generated at build time by the annotation processor
+ * (com.ipfaffen.ovenbird.processor.MetadataProcessor).<br>
+ * The generated class is named after the entity class plus {@link #CLASS_SUFFIX} (eg: Customer_Metadata) and it is
+ * picked up by {@link EntityMetadata} when present, so the annotations are not scanned and the non-private fields are
+ * accessed through plain java code.
+ *
+ * @author Isaias Pfaffenseller
+ */
+public abstract class GeneratedMetadata {
+
+	/**
+	 * Suffix added to the entity class name.
+	 */
+	public static final String CLASS_SUFFIX = "_Metadata";
+
+	/**
+	 * @return table name or null if the class is not a table (dto).
+	 */
+	public abstract String getTableName();
+
+	/**
+	 * @return new instance of the entity class.
+	 */
+	public abstract Object newInstance();
+
+	/**
+	 * @return column fields in declaration order (with accessors).
+	 */
+	public abstract ColumnField[] getColumns();
+
+	/**
+	 * @return join attribute names.
+	 */
+	public abstract String[] getJoinAttributes();
+
+	/**
+	 * @return join column attribute names (as in JoinColumn.name), same order as {@link #getJoinAttributes()}.
+	 */
+	public abstract String[] getJoinColumns();
+
+	/**
+	 * @return referenced entity classes, same order as {@link #getJoinAttributes()}.
+	 */
+	public abstract Class<?>[] getJoinTypes();
+
+	/**
+	 * @return join field accessors, same order as {@link #getJoinAttributes()}.
+	 */
+	public abstract FieldAccessor[] getJoinAccessors();
+
+	/**
+	 * @param attributeName
+	 * @param columnName
+	 * @param type
+	 * @param genericType
+	 * @param isId
+	 * @param accessor
+	 * @return
+	 */
+	protected static ColumnField column(String attributeName, String columnName, Class<?> type, String genericType, boolean isId, FieldAccessor accessor) {
+		ColumnField field = new ColumnField();
+		field.setAccessor(accessor);
+		field.setAttributeName(attributeName);
+		field.setColumnName(columnName);
+		field.setType(type);
+		field.setGenericType(genericType);
+		field.setIsId(isId);
+		return field;
+	}
+
+	/**
+	 * Accessor for fields that cannot be reached from the generated code (private fields).
+	 *
+	 * @param type
+	 * @param fieldName
+	 * @return
+	 */
+	protected static FieldAccessor reflectionAccessor(Class<?> type, String fieldName) {
+		try {
+			return FieldAccessorFactory.getInstance().create(type.getDeclaredField(fieldName));
+		}
+		catch(NoSuchFieldException e) {
+			throw new RuntimeException("Invalid field.", e);
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.ipfaffen.ovenbird.model.metadata;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+import com.ipfaffen.ovenbird.model.exception.ModelException;
+
+/**
+ * Field accessor based on method handles bound once to the field, so the JIT can inline the access.
+ * 
+ * @author Isaias Pfaffenseller
+ */
+public class MethodHandleFieldAccessor implements FieldAccessor {
+
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	private final String fieldName;
+	private final MethodHandle getter;
+	private final MethodHandle setter;
+	private final Object nullValue;
+
+	/**
+	 * @param field
+	 * @throws IllegalAccessException
+	 */
+	public MethodHandleFieldAccessor(Field field) throws IllegalAccessException {
+		field.setAccessible(true);
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		this.fieldName = field.getName();
+		this.getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+		this.setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+		this.nullValue = FieldAccessorFactory.getDefaultValue(field.getType());
+	}
+
+	@Override
+	public Object get(Object object) {
+		try {
+			return (Object) getter.invokeExact(object);
+		}
+		catch(Throwable e) {
+			throw new ModelException(String.format("Occurred a problem reading the field %s: %s", fieldName, e.getMessage()), e);
+		}
+	}
+
+	@Override
+	public void set(Object object, Object value) {
+		try {
+			setter.invokeExact(object, (value == null) ? nullValue : value);
+		}
+		catch(Throwable e) {
+			throw new ModelException(String.format("Occurred a problem writing the field %s: %s", fieldName, e.getMessage()), e);
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package com.ipfaffen.ovenbird.model.metadata;
+
+import java.lang.reflect.Field;
+
+import com.ipfaffen.ovenbird.model.exception.ModelException;
+
+/**
+ * Field accessor based on {@link Field#get(Object)} and {@link Field#set(Object, Object)}.
+ * 
+ * @author Isaias Pfaffenseller
+ */
+public class ReflectionFieldAccessor implements FieldAccessor {
+
+	private final Field field;
+	private final Object nullValue;
+
+	/**
+	 * @param field
+	 */
+	public ReflectionFieldAccessor(Field field) {
+		field.setAccessible(true);
+		this.field = field;
+		this.nullValue = FieldAccessorFactory.getDefaultValue(field.getType());
+	}
+
+	@Override
+	public Object get(Object object) {
+		try {
+			return field.get(object);
+		}
+		catch(Exception e) {
+			throw new ModelException(String.format("Occurred a problem reading the field %s: %s", field.getName(), e.getMessage()), e);
+		}
+	}
+
+	@Override
+	public void set(Object object, Object value) {
+		try {
+			field.set(object, (value == null) ? nullValue : value);
+		}
+		catch(Exception e) {
+			throw new ModelException(String.format("Occurred a problem writing the field %s: %s", field.getName(), e.getMessage()), e);
+		}
+	}
+}
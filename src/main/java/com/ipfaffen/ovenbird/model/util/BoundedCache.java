@@ -0,0 +1,151 @@
+package com.ipfaffen.ovenbird.model.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrent cache with a max number of entries.<br>
+ * Lookups never lock: each entry only records its last access time. When a put exceeds the limit, a single thread
+ * evicts the least recently used entries (approximately, since the accesses are not ordered) down to 90% of the
+ * limit, so the eviction cost is amortized over the following puts.
+ * 
+ * @author Isaias Pfaffenseller
+ */
+public class BoundedCache<K, V> {
+
+	private final ConcurrentMap<K, Entry<V>> entries;
+	private final ReentrantLock evictionLock;
+	private final int maxSize;
+
+	/**
+	 * @param maxSize - max number of entries (0 disables the cache).
+	 */
+	public BoundedCache(int maxSize) {
+		this.entries = new ConcurrentHashMap<K, Entry<V>>();
+		this.evictionLock = new ReentrantLock();
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * @param key
+	 * @return cached value or null.
+	 */
+	public V get(K key) {
+		Entry<V> entry = entries.get(key);
+		if(entry == null) {
+			return null;
+		}
+		entry.lastAccess = System.nanoTime();
+		return entry.value;
+	}
+
+	/**
+	 * Cache the value if the key is not cached yet.
+	 * 
+	 * @param key
+	 * @param value
+	 * @return the cached value (the existing one if other thread cached it first).
+	 */
+	public V put(K key, V value) {
+		if(maxSize <= 0) {
+			return value;
+		}
+		Entry<V> existing = entries.putIfAbsent(key, new Entry<V>(value));
+		if(existing != null) {
+			return existing.value;
+		}
+		if(entries.size() > maxSize) {
+			evict();
+		}
+		return value;
+	}
+
+	/**
+	 * Remove the least recently used entries down to 90% of the max size (skipped if other thread is evicting).
+	 */
+	private void evict() {
+		if(!evictionLock.tryLock()) {
+			return;
+		}
+		try {
+			if(entries.size() <= maxSize) {
+				return;
+			}
+			// The access times are copied, since they may change while sorting.
+			List<AccessTime<K>> accessTimes = new ArrayList<AccessTime<K>>(entries.size());
+			for(Map.Entry<K, Entry<V>> entry: entries.entrySet()) {
+				accessTimes.add(new AccessTime<K>(entry.getKey(), entry.getValue().lastAccess));
+			}
+			Collections.sort(accessTimes, new Comparator<AccessTime<K>>() {
+				@Override
+				public int compare(AccessTime<K> accessTime1, AccessTime<K> accessTime2) {
+					return (accessTime1.time < accessTime2.time) ? -1 : ((accessTime1.time == accessTime2.time) ? 0 : 1);
+				}
+			});
+			int evictCount = accessTimes.size() - (maxSize - (maxSize / 10));
+			for(int i = 0; i < evictCount; i++) {
+				entries.remove(accessTimes.get(i).key);
+			}
+		}
+		finally {
+			evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * @param key
+	 */
+	public void remove(K key) {
+		entries.remove(key);
+	}
+
+	public void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * @return
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Cached value with its last access time.
+	 */
+	private static final class Entry<V> {
+		private final V value;
+		private volatile long lastAccess;
+
+		/**
+		 * @param value
+		 */
+		private Entry(V value) {
+			this.value = value;
+			this.lastAccess = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Key with a copy of its last access time.
+	 */
+	private static final class AccessTime<K> {
+		private final K key;
+		private final long time;
+
+		/**
+		 * @param key
+		 * @param time
+		 */
+		private AccessTime(K key, long time) {
+			this.key = key;
+			this.time = time;
+		}
+	}
+}
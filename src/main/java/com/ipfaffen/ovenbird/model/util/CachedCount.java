@@ -0,0 +1,35 @@
+package com.ipfaffen.ovenbird.model.util;
+
+/**
+ * Total rows cached with expiration time (see PagingCriteria.Count.CACHED).
+ *
+ * @author Isaias Pfaffenseller
+ */
+public final class CachedCount {
+
+	private final int totalRows;
+	private final long expiresAt;
+
+	/**
+	 * @param totalRows
+	 * @param expiresAt
+	 */
+	public CachedCount(int totalRows, long expiresAt) {
+		this.totalRows = totalRows;
+		this.expiresAt = expiresAt;
+	}
+
+	/**
+	 * @return
+	 */
+	public int getTotalRows() {
+		return totalRows;
+	}
+
+	/**
+	 * @return
+	 */
+	public boolean isExpired() {
+		return System.currentTimeMillis() > expiresAt;
+	}
+}
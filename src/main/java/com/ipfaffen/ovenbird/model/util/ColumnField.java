@@ -2,12 +2,15 @@ package com.ipfaffen.ovenbird.model.util;
 
 import java.lang.reflect.Field;
 
+import com.ipfaffen.ovenbird.model.metadata.FieldAccessor;
+
 /**
  * @author Isaias Pfaffenseller
  */
 public class ColumnField {
 	
 	private Field declaredField;
+	private FieldAccessor accessor;
 	private String attributeName;
 	private String columnName;
 	private Object value;
@@ -15,6 +18,25 @@ public class ColumnField {
 	private String genericType;
 	private boolean isId;
 
+	public ColumnField() {
+	}
+
+	/**
+	 * Copy the given field description (value included).
+	 * 
+	 * @param field
+	 */
+	public ColumnField(ColumnField field) {
+		this.declaredField = field.declaredField;
+		this.accessor = field.accessor;
+		this.attributeName = field.attributeName;
+		this.columnName = field.columnName;
+		this.value = field.value;
+		this.type = field.type;
+		this.genericType = field.genericType;
+		this.isId = field.isId;
+	}
+
 	/**
 	 * @return
 	 */
@@ -29,6 +51,20 @@ public class ColumnField {
 		this.declaredField = declaredField;
 	}
 	
+	/**
+	 * @return
+	 */
+	public FieldAccessor getAccessor() {
+		return accessor;
+	}
+
+	/**
+	 * @param accessor
+	 */
+	public void setAccessor(FieldAccessor accessor) {
+		this.accessor = accessor;
+	}
+	
 	/**
 	 * @return
 	 */
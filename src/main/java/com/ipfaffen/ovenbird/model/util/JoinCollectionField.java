@@ -0,0 +1,72 @@
+package com.ipfaffen.ovenbird.model.util;
+
+import com.ipfaffen.ovenbird.model.metadata.FieldAccessor;
+
+/**
+ * One-to-many relationship description (see JoinCollection).
+ * 
+ * @author Isaias Pfaffenseller
+ */
+public class JoinCollectionField {
+
+	private String attributeName;
+	private Class<?> type;
+	private String mappedBy;
+	private FieldAccessor accessor;
+
+	/**
+	 * @return
+	 */
+	public String getAttributeName() {
+		return attributeName;
+	}
+
+	/**
+	 * @param attributeName
+	 */
+	public void setAttributeName(String attributeName) {
+		this.attributeName = attributeName;
+	}
+
+	/**
+	 * @return entity class of the collection elements.
+	 */
+	public Class<?> getType() {
+		return type;
+	}
+
+	/**
+	 * @param type
+	 */
+	public void setType(Class<?> type) {
+		this.type = type;
+	}
+
+	/**
+	 * @return attribute of the collection entity that references the owner entity.
+	 */
+	public String getMappedBy() {
+		return mappedBy;
+	}
+
+	/**
+	 * @param mappedBy
+	 */
+	public void setMappedBy(String mappedBy) {
+		this.mappedBy = mappedBy;
+	}
+
+	/**
+	 * @return
+	 */
+	public FieldAccessor getAccessor() {
+		return accessor;
+	}
+
+	/**
+	 * @param accessor
+	 */
+	public void setAccessor(FieldAccessor accessor) {
+		this.accessor = accessor;
+	}
+}
@@ -2,6 +2,8 @@ package com.ipfaffen.ovenbird.model.util;
 
 import java.lang.reflect.Field;
 
+import com.ipfaffen.ovenbird.model.metadata.FieldAccessor;
+
 /**
  * @author Isaias Pfaffenseller
  */
@@ -13,6 +15,7 @@ public class JoinColumnField {
 	private TableEntity baseTable;
 	private ColumnField baseIdColumn;
 	private Field baseField;
+	private FieldAccessor baseFieldAccessor;
 	private Integer[] aliasHandler;
 	private String alias;
 	private TableEntity table;
@@ -20,6 +23,24 @@ public class JoinColumnField {
 
 	private Integer aliasIndex = -1;
 
+	public JoinColumnField() {
+	}
+
+	/**
+	 * Copy the relationship description of the given join field (table, columns and base field).<br>
+	 * Criteria state (identifier, depth and alias) is not copied.
+	 * 
+	 * @param joinField
+	 */
+	public JoinColumnField(JoinColumnField joinField) {
+		this.baseTable = joinField.baseTable;
+		this.baseIdColumn = joinField.baseIdColumn;
+		this.baseField = joinField.baseField;
+		this.baseFieldAccessor = joinField.baseFieldAccessor;
+		this.table = joinField.table;
+		this.idColumn = joinField.idColumn;
+	}
+
 	/**
 	 * @return
 	 */
@@ -104,6 +125,20 @@ public class JoinColumnField {
 		this.baseField = baseField;
 	}
 
+	/**
+	 * @return
+	 */
+	public FieldAccessor getBaseFieldAccessor() {
+		return baseFieldAccessor;
+	}
+
+	/**
+	 * @param baseFieldAccessor
+	 */
+	public void setBaseFieldAccessor(FieldAccessor baseFieldAccessor) {
+		this.baseFieldAccessor = baseFieldAccessor;
+	}
+
 	/**
 	 * @return
 	 */
@@ -0,0 +1,39 @@
+package com.ipfaffen.ovenbird.model.util;
+
+import java.util.Collection;
+
+import com.ipfaffen.ovenbird.commons.PagedList;
+
+/**
+ * Page of a keyset pagination (see PagingCriteria.enableKeyset).
+ * 
+ * @author Isaias Pfaffenseller
+ */
+@SuppressWarnings("serial")
+public class KeysetPagedList<T> extends PagedList<T> {
+
+	private String nextToken;
+
+	/**
+	 * @param collection
+	 * @param nextToken
+	 */
+	public KeysetPagedList(Collection<T> collection, String nextToken) {
+		super(collection);
+		this.nextToken = nextToken;
+	}
+
+	/**
+	 * @return continuation token of the next page (null if this is the last page).
+	 */
+	public String getNextToken() {
+		return nextToken;
+	}
+
+	/**
+	 * @return
+	 */
+	public boolean hasNext() {
+		return nextToken != null;
+	}
+}
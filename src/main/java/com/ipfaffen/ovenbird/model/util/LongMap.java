@@ -0,0 +1,128 @@
+package com.ipfaffen.ovenbird.model.util;
+
+/**
+ * Hash map with primitive long keys (open addressing, linear probing), so grouping records by id does not box the
+ * keys.<br>
+ * Entries can not be removed.
+ * 
+ * @author Isaias Pfaffenseller
+ */
+public class LongMap<V> {
+
+	private static final long PHI = 0x9E3779B97F4A7C15L;
+
+	private long[] keys;
+	private Object[] values;
+	private boolean[] used;
+	private int size;
+	private int mask;
+
+	public LongMap() {
+		this(16);
+	}
+
+	/**
+	 * @param expectedSize
+	 */
+	public LongMap(int expectedSize) {
+		int capacity = 16;
+		while(capacity < expectedSize * 2) {
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	/**
+	 * @param key
+	 * @return value of the key (null if there is none).
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(long key) {
+		int index = indexOf(key);
+		return used[index] ? (V) values[index] : null;
+	}
+
+	/**
+	 * @param key
+	 * @return
+	 */
+	public boolean containsKey(long key) {
+		return used[indexOf(key)];
+	}
+
+	/**
+	 * @param key
+	 * @param value
+	 * @return previous value of the key.
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(long key, V value) {
+		int index = indexOf(key);
+		if(used[index]) {
+			V previous = (V) values[index];
+			values[index] = value;
+			return previous;
+		}
+		keys[index] = key;
+		values[index] = value;
+		used[index] = true;
+		if(++size * 2 > keys.length) {
+			rehash();
+		}
+		return null;
+	}
+
+	/**
+	 * @return
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @param key
+	 * @return slot of the key, or the free slot where it would be.
+	 */
+	private int indexOf(long key) {
+		int index = (int) ((key * PHI) >>> 32) & mask;
+		while(used[index] && keys[index] != key) {
+			index = (index + 1) & mask;
+		}
+		return index;
+	}
+
+	/**
+	 * Double the capacity.
+	 */
+	private void rehash() {
+		long[] oldKeys = keys;
+		Object[] oldValues = values;
+		boolean[] oldUsed = used;
+		allocate(oldKeys.length * 2);
+		for(int i = 0; i < oldKeys.length; i++) {
+			if(oldUsed[i]) {
+				int index = indexOf(oldKeys[i]);
+				keys[index] = oldKeys[i];
+				values[index] = oldValues[i];
+				used[index] = true;
+			}
+		}
+	}
+
+	/**
+	 * @param capacity - power of two.
+	 */
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new Object[capacity];
+		used = new boolean[capacity];
+		mask = capacity - 1;
+	}
+}
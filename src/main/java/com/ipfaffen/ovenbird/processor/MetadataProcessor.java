@@ -0,0 +1,395 @@
+package com.ipfaffen.ovenbird.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates the metadata class (GeneratedMetadata) of each entity and dto, so the ORM does not need to scan the
+ * annotations at runtime.<br>
+ * Fields are accessed directly, as in the runtime metadata (never through getters and setters, which may have side
+ * effects such as ModelEntity.lazy): non-private fields by generated code and private fields by the accessor of
+ * FieldAccessorFactory.<br>
+ * It is not registered as a service, so it must be enabled in the compiler (e.g. -processor
+ * com.ipfaffen.ovenbird.processor.MetadataProcessor).
+ *
+ * @author Isaias Pfaffenseller
+ */
+@SupportedAnnotationTypes({
+	MetadataProcessor.TABLE,
+	MetadataProcessor.COLUMN,
+	MetadataProcessor.JOIN_COLUMN})
+public class MetadataProcessor extends AbstractProcessor {
+
+	static final String TABLE = "com.ipfaffen.ovenbird.model.annotation.Table";
+	static final String COLUMN = "com.ipfaffen.ovenbird.model.annotation.Column";
+	static final String JOIN_COLUMN = "com.ipfaffen.ovenbird.model.annotation.JoinColumn";
+
+	private static final String MODEL_ENTITY = "com.ipfaffen.ovenbird.model.ModelEntity";
+	private static final String MODEL_DTO = "com.ipfaffen.ovenbird.model.ModelDto";
+	private static final String CLASS_SUFFIX = "_Metadata";
+
+	private final Set<String> generatedTypes = new LinkedHashSet<String>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		Set<TypeElement> types = new LinkedHashSet<TypeElement>();
+		for(TypeElement annotation: annotations) {
+			for(Element element: roundEnv.getElementsAnnotatedWith(annotation)) {
+				if(element.getKind() == ElementKind.CLASS) {
+					types.add((TypeElement) element);
+				}
+				else if(element.getKind() == ElementKind.FIELD) {
+					types.add((TypeElement) element.getEnclosingElement());
+				}
+			}
+		}
+
+		for(TypeElement type: types) {
+			String typeName = type.getQualifiedName().toString();
+			if(generatedTypes.contains(typeName) || !isModelClass(type)) {
+				continue;
+			}
+			if(!canGenerate(type)) {
+				processingEnv.getMessager().printMessage(Kind.NOTE, "Metadata not generated (requires a non-private no-arg constructor and a top level or static class).", type);
+				continue;
+			}
+			try {
+				generate(type);
+				generatedTypes.add(typeName);
+			}
+			catch(IOException e) {
+				processingEnv.getMessager().printMessage(Kind.ERROR, "Occurred a problem generating the metadata: " + e.getMessage(), type);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param type
+	 * @return true if the type extends ModelEntity or ModelDto.
+	 */
+	private boolean isModelClass(TypeElement type) {
+		TypeMirror superclass = type.getSuperclass();
+		while(superclass.getKind() == TypeKind.DECLARED) {
+			TypeElement superElement = (TypeElement) ((DeclaredType) superclass).asElement();
+			String superName = superElement.getQualifiedName().toString();
+			if(superName.equals(MODEL_ENTITY) || superName.equals(MODEL_DTO)) {
+				return true;
+			}
+			superclass = superElement.getSuperclass();
+		}
+		return false;
+	}
+
+	/**
+	 * @param type
+	 * @return
+	 */
+	private boolean canGenerate(TypeElement type) {
+		if(type.getModifiers().contains(Modifier.ABSTRACT) || type.getModifiers().contains(Modifier.PRIVATE)) {
+			return false;
+		}
+		if(type.getNestingKind() != NestingKind.TOP_LEVEL && !(type.getNestingKind() == NestingKind.MEMBER && type.getModifiers().contains(Modifier.STATIC))) {
+			return false;
+		}
+		List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+		for(ExecutableElement constructor: constructors) {
+			if(constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param type
+	 * @throws IOException
+	 */
+	private void generate(TypeElement type) throws IOException {
+		PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+		String packageName = packageElement.getQualifiedName().toString();
+		String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+		String simpleName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+		String className = simpleName + CLASS_SUFFIX;
+		String typeName = type.getQualifiedName().toString();
+
+		List<String> columns = new ArrayList<String>();
+		List<String> joinAttributes = new ArrayList<String>();
+		List<String> joinColumns = new ArrayList<String>();
+		List<String> joinTypes = new ArrayList<String>();
+		List<String> joinAccessors = new ArrayList<String>();
+
+		for(VariableElement field: ElementFilter.fieldsIn(type.getEnclosedElements())) {
+			AnnotationMirror column = getAnnotation(field, COLUMN);
+			if(column != null) {
+				String attributeName = field.getSimpleName().toString();
+				columns.add(new StringBuilder("\t\t\tcolumn(")
+						.append(literal(attributeName)).append(", ")
+						.append(literal(String.valueOf(getValue(column, "name", "")))).append(", ")
+						.append(classLiteral(field.asType())).append(", ")
+						.append(literal(genericType(field.asType()))).append(", ")
+						.append(getValue(column, "isKey", Boolean.FALSE)).append(", ")
+						.append(accessor(typeName, field)).append(")")
+						.toString());
+				continue;
+			}
+
+			AnnotationMirror joinColumn = getAnnotation(field, JOIN_COLUMN);
+			if(joinColumn != null) {
+				joinAttributes.add(literal(field.getSimpleName().toString()));
+				joinColumns.add(literal(String.valueOf(getValue(joinColumn, "name", ""))));
+				joinTypes.add(classLiteral(field.asType()));
+				joinAccessors.add("\t\t\t" + accessor(typeName, field));
+			}
+		}
+
+		AnnotationMirror table = getAnnotation(type, TABLE);
+
+		JavaFileObject file = processingEnv.getFiler().createSourceFile((packageName.isEmpty() ? "" : packageName + ".") + className, type);
+		PrintWriter out = new PrintWriter(file.openWriter());
+		try {
+			if(!packageName.isEmpty()) {
+				out.println("package " + packageName + ";");
+				out.println();
+			}
+			out.println("import com.ipfaffen.ovenbird.model.metadata.FieldAccessor;");
+			out.println("import com.ipfaffen.ovenbird.model.metadata.GeneratedMetadata;");
+			out.println("import com.ipfaffen.ovenbird.model.util.ColumnField;");
+			out.println();
+			out.println("/**");
+			out.println(" * Generated by " + getClass().getName() + " from " + typeName + ".");
+			out.println(" */");
+			out.println("@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+			out.println("public final class " + className + " extends GeneratedMetadata {");
+			out.println();
+			out.println("\t@Override");
+			out.println("\tpublic String getTableName() {");
+			out.println("\t\treturn " + ((table == null) ? "null" : literal(String.valueOf(getValue(table, "name", "")))) + ";");
+			out.println("\t}");
+			out.println();
+			out.println("\t@Override");
+			out.println("\tpublic Object newInstance() {");
+			out.println("\t\treturn new " + typeName + "();");
+			out.println("\t}");
+			out.println();
+			out.println("\t@Override");
+			out.println("\tpublic ColumnField[] getColumns() {");
+			out.println("\t\treturn new ColumnField[]{");
+			out.println(join(columns, ",\n"));
+			out.println("\t\t};");
+			out.println("\t}");
+			printArray(out, "String", "getJoinAttributes", joinAttributes, " ");
+			printArray(out, "String", "getJoinColumns", joinColumns, " ");
+			printArray(out, "Class<?>", "getJoinTypes", joinTypes, " ");
+			printArray(out, "FieldAccessor", "getJoinAccessors", joinAccessors, "\n");
+			out.println("}");
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * @param out
+	 * @param type
+	 * @param method
+	 * @param values
+	 * @param separator
+	 */
+	private void printArray(PrintWriter out, String type, String method, List<String> values, String separator) {
+		out.println();
+		out.println("\t@Override");
+		out.println("\tpublic " + type + "[] " + method + "() {");
+		if(separator.equals("\n") && !values.isEmpty()) {
+			out.println("\t\treturn new " + type + "[]{");
+			out.println(join(values, ",\n"));
+			out.println("\t\t};");
+		}
+		else {
+			out.println("\t\treturn new " + type + "[]{" + join(values, ", ") + "};");
+		}
+		out.println("\t}");
+	}
+
+	/**
+	 * Build the accessor source of the field.
+	 *
+	 * @param typeName
+	 * @param field
+	 * @return
+	 */
+	private String accessor(String typeName, VariableElement field) {
+		String fieldName = field.getSimpleName().toString();
+		if(field.getModifiers().contains(Modifier.PRIVATE)) {
+			return "reflectionAccessor(" + typeName + ".class, " + literal(fieldName) + ")";
+		}
+		String getter = "((" + typeName + ") object)." + fieldName;
+		String setter = "((" + typeName + ") object)." + fieldName + " = " + convert(field.asType()) + ";";
+
+		return new StringBuilder("new FieldAccessor() {\n")
+				.append("\t\t\t\tpublic Object get(Object object) {\n")
+				.append("\t\t\t\t\treturn ").append(getter).append(";\n")
+				.append("\t\t\t\t}\n")
+				.append("\t\t\t\tpublic void set(Object object, Object value) {\n")
+				.append("\t\t\t\t\t").append(setter).append("\n")
+				.append("\t\t\t\t}\n")
+				.append("\t\t\t}")
+				.toString();
+	}
+
+	/**
+	 * Source that converts "value" to the field type (null is converted to the primitive default value).
+	 *
+	 * @param fieldType
+	 * @return
+	 */
+	private String convert(TypeMirror fieldType) {
+		switch(fieldType.getKind()) {
+			case BOOLEAN:
+				return "(value == null) ? false : ((Boolean) value).booleanValue()";
+			case CHAR:
+				return "(value == null) ? (char) 0 : ((Character) value).charValue()";
+			case BYTE:
+				return "(value == null) ? (byte) 0 : ((Number) value).byteValue()";
+			case SHORT:
+				return "(value == null) ? (short) 0 : ((Number) value).shortValue()";
+			case INT:
+				return "(value == null) ? 0 : ((Number) value).intValue()";
+			case LONG:
+				return "(value == null) ? 0L : ((Number) value).longValue()";
+			case FLOAT:
+				return "(value == null) ? 0F : ((Number) value).floatValue()";
+			case DOUBLE:
+				return "(value == null) ? 0D : ((Number) value).doubleValue()";
+			default:
+				return "(" + erasure(fieldType) + ") value";
+		}
+	}
+
+	/**
+	 * @param type
+	 * @return
+	 */
+	private TypeMirror erasure(TypeMirror type) {
+		return processingEnv.getTypeUtils().erasure(type);
+	}
+
+	/**
+	 * @param type
+	 * @return
+	 */
+	private String classLiteral(TypeMirror type) {
+		return erasure(type) + ".class";
+	}
+
+	/**
+	 * Same format of java.lang.reflect.Field.getGenericType().toString().
+	 *
+	 * @param type
+	 * @return
+	 */
+	private String genericType(TypeMirror type) {
+		if(type.getKind() == TypeKind.DECLARED) {
+			DeclaredType declaredType = (DeclaredType) type;
+			if(!declaredType.getTypeArguments().isEmpty()) {
+				return type.toString();
+			}
+			TypeElement element = (TypeElement) declaredType.asElement();
+			String prefix = element.getKind().isInterface() ? "interface " : "class ";
+			return prefix + processingEnv.getElementUtils().getBinaryName(element);
+		}
+		return type.toString();
+	}
+
+	/**
+	 * @param element
+	 * @param annotationName
+	 * @return
+	 */
+	private AnnotationMirror getAnnotation(Element element, String annotationName) {
+		for(AnnotationMirror annotation: element.getAnnotationMirrors()) {
+			TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+			if(annotationType.getQualifiedName().contentEquals(annotationName)) {
+				return annotation;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param annotation
+	 * @param name
+	 * @param defaultValue
+	 * @return
+	 */
+	private Object getValue(AnnotationMirror annotation, String name, Object defaultValue) {
+		for(Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry: annotation.getElementValues().entrySet()) {
+			if(entry.getKey().getSimpleName().contentEquals(name)) {
+				return entry.getValue().getValue();
+			}
+		}
+		return defaultValue;
+	}
+
+	/**
+	 * @param value
+	 * @return java string literal.
+	 */
+	private String literal(String value) {
+		StringBuilder literal = new StringBuilder("\"");
+		for(char c: value.toCharArray()) {
+			if(c == '"' || c == '\\') {
+				literal.append('\\');
+			}
+			literal.append(c);
+		}
+		return literal.append('"').toString();
+	}
+
+	/**
+	 * @param values
+	 * @param separator
+	 * @return
+	 */
+	private String join(List<String> values, String separator) {
+		StringBuilder joined = new StringBuilder();
+		for(String value: values) {
+			if(joined.length() > 0) {
+				joined.append(separator);
+			}
+			joined.append(value);
+		}
+		return joined.toString();
+	}
+}
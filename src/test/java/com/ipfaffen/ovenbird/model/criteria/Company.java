@@ -0,0 +1,36 @@
+package com.ipfaffen.ovenbird.model.criteria;
+
+import com.ipfaffen.ovenbird.model.ModelEntity;
+import com.ipfaffen.ovenbird.model.annotation.Column;
+import com.ipfaffen.ovenbird.model.annotation.Table;
+
+/**
+ * Test entity.
+ * 
+ * @author Isaias Pfaffenseller
+ */
+@Table(name = "company")
+public class Company extends ModelEntity<Company> {
+
+	@Column(name = "id", isKey = true)
+	private Long id;
+
+	@Column(name = "company_name")
+	private String name;
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+}
@@ -0,0 +1,114 @@
+package com.ipfaffen.ovenbird.model.criteria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * @author Isaias Pfaffenseller
+ */
+public class ConditionTemplateTest {
+
+	@Test
+	public void fieldsAreReplacedByColumns() {
+		assertEquals("t_main.full_name = ? AND t_main.age > ?", resolve("@name = ? AND @age > ?"));
+	}
+
+	@Test
+	public void fieldsFollowedByDelimiters() {
+		assertEquals("COALESCE(t_main.age,0) > ?", resolve("COALESCE(@age,0) > ?"));
+		assertEquals("(t_main.age)", resolve("(@age)"));
+		assertEquals("t_main.age=? OR t_main.full_name<>?", resolve("@age=? OR @name<>?"));
+		assertEquals("t_main.age", resolve("@age"));
+	}
+
+	@Test
+	public void fromIsReplacedByMainAlias() {
+		assertEquals("EXISTS (SELECT 1 FROM customer c WHERE c.id = t_main.id)", resolve("EXISTS (SELECT 1 FROM customer c WHERE c.id = @from.id)"));
+		assertEquals("t_main.full_name = ?", resolve("@from.full_name = ?"));
+		assertEquals("COUNT(t_main)", resolve("COUNT(@from)"));
+	}
+
+	@Test
+	public void quotedTextIsNotParsed() {
+		assertEquals("t_main.full_name = 'a@age.com'", resolve("@name = 'a@age.com'"));
+		assertEquals("t_main.full_name = \"@age\"", resolve("@name = \"@age\""));
+		assertEquals("`@age` = t_main.age", resolve("`@age` = @age"));
+	}
+
+	@Test
+	public void doubledQuoteIsEscaped() {
+		assertEquals("t_main.full_name = 'it''s @age' AND t_main.age > ?", resolve("@name = 'it''s @age' AND @age > ?"));
+		assertEquals("t_main.full_name = '' AND t_main.age > ?", resolve("@name = '' AND @age > ?"));
+	}
+
+	@Test
+	public void backslashIsEscaped() {
+		assertEquals("t_main.full_name = 'it\\'s @age' AND t_main.age > ?", resolve("@name = 'it\\'s @age' AND @age > ?"));
+		assertEquals("t_main.full_name = 'dir\\\\' AND t_main.age > ?", resolve("@name = 'dir\\\\' AND @age > ?"));
+		// Backslash is not an escape inside backticks.
+		assertEquals("`a\\` = t_main.age", resolve("`a\\` = @age"));
+	}
+
+	@Test
+	public void unclosedQuoteIsCopiedToTheEnd() {
+		assertEquals("t_main.full_name = 'abc @age", resolve("@name = 'abc @age"));
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void emptyFieldIsRejected() {
+		resolve("@ = ?");
+	}
+
+	@Test
+	public void joinPathsAreResolvedByTheCriteria() {
+		Criteria criteria = new Criteria(Customer.class);
+		String sql = ConditionTemplate.get(Customer.class, "@company.name = ? AND @age > ?").resolve(criteria);
+		assertEquals(criteria.replaceWithAlias("company.name").concat(" = ? AND t_main.age > ?"), sql);
+		assertTrue(sql.matches("t_\\w+\\.company_name = \\? AND t_main\\.age > \\?"));
+	}
+
+	@Test
+	public void joinPathsAreResolvedOnEachUse() {
+		ConditionTemplate template = ConditionTemplate.get(Customer.class, "@company.name LIKE ? OR @company.id = ?");
+		Criteria criteria = new Criteria(Customer.class);
+		String sql = template.resolve(criteria);
+		assertEquals(sql, template.resolve(new Criteria(Customer.class)));
+		assertEquals(criteria.replaceWithAlias("company.name").concat(" LIKE ? OR ").concat(criteria.replaceWithAlias("company.id")).concat(" = ?"), sql);
+	}
+
+	@Test
+	public void templatesAreMemoizedPerEntityClass() {
+		String sql = "@name = ?";
+		ConditionTemplate customerTemplate = ConditionTemplate.get(Customer.class, sql);
+		assertSame(customerTemplate, ConditionTemplate.get(Customer.class, sql));
+
+		ConditionTemplate companyTemplate = ConditionTemplate.get(Company.class, sql);
+		assertNotSame(customerTemplate, companyTemplate);
+		assertSame(companyTemplate, ConditionTemplate.get(Company.class, sql));
+
+		assertEquals("t_main.full_name = ?", customerTemplate.resolve(new Criteria(Customer.class)));
+		assertEquals("t_main.company_name = ?", companyTemplate.resolve(new Criteria(Company.class)));
+	}
+
+	@Test
+	public void addConditionUsesTheTemplate() {
+		Criteria criteria = new Criteria(Customer.class);
+		criteria.addCondition("@name = '@x' AND @age > ?", 18);
+		assertEquals("t_main.full_name = '@x' AND t_main.age > ?", criteria.getConditions());
+		assertEquals(Arrays.<Object>asList(18), criteria.getConditionsValues());
+	}
+
+	/**
+	 * @param sql
+	 * @return
+	 */
+	private String resolve(String sql) {
+		return ConditionTemplate.get(Customer.class, sql).resolve(new Criteria(Customer.class));
+	}
+}
@@ -0,0 +1,181 @@
+package com.ipfaffen.ovenbird.model.criteria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ipfaffen.ovenbird.model.ModelConstants;
+import com.ipfaffen.ovenbird.model.criteria.Criteria.Filter;
+
+/**
+ * @author Isaias Pfaffenseller
+ */
+public class CriteriaWhereTest {
+
+	private int inMaxParameters;
+
+	@Before
+	public void setUp() {
+		inMaxParameters = ModelConstants.IN_MAX_PARAMETERS;
+		ModelConstants.IN_MAX_PARAMETERS = 4;
+	}
+
+	@After
+	public void tearDown() {
+		ModelConstants.IN_MAX_PARAMETERS = inMaxParameters;
+	}
+
+	@Test
+	public void inRemovesDuplicatedValues() {
+		CriteriaWhere where = new CriteriaWhere();
+		where.addInCondition("t_main.id", Arrays.asList(3, 1, 3, 2, 1, 4));
+
+		assertEquals("t_main.id IN (?, ?, ?, ?)", where.getConditions().toString());
+		assertEquals(Arrays.<Object>asList(3, 1, 2, 4), where.getConditionsValues());
+		assertEquals(1, where.getInChunkCount());
+	}
+
+	@Test
+	public void inPadsToPowerOfTwoWithLastValue() {
+		CriteriaWhere where = new CriteriaWhere();
+		where.addInCondition("t_main.id", Arrays.asList(1, 2, 3));
+
+		assertEquals("t_main.id IN (?, ?, ?, ?)", where.getConditions().toString());
+		assertEquals(Arrays.<Object>asList(1, 2, 3, 3), where.getConditionsValues());
+
+		where = new CriteriaWhere();
+		where.addInCondition("t_main.id", Arrays.asList(1, 2));
+		assertEquals("t_main.id IN (?, ?)", where.getConditions().toString());
+		assertEquals(Arrays.<Object>asList(1, 2), where.getConditionsValues());
+
+		where = new CriteriaWhere();
+		where.addInCondition("t_main.id", Arrays.asList(1));
+		assertEquals("t_main.id IN (?)", where.getConditions().toString());
+		assertEquals(Arrays.<Object>asList(1), where.getConditionsValues());
+	}
+
+	@Test
+	public void emptyInMatchesNothing() {
+		CriteriaWhere where = new CriteriaWhere();
+		where.addInCondition("t_main.id", Collections.emptyList());
+
+		assertEquals("1 = 0", where.getConditions().toString());
+		assertEquals(0, where.getConditionsValues().size());
+	}
+
+	@Test
+	public void inIsSplitInChunksAboveMaxParameters() {
+		CriteriaWhere where = new CriteriaWhere();
+		where.addInCondition("t_main.id", Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+		assertEquals(3, where.getInChunkCount());
+
+		assertEquals("t_main.id IN (?, ?, ?, ?)", where.getConditions().toString());
+		assertEquals(Arrays.<Object>asList(1, 2, 3, 4), where.getConditionsValues());
+
+		where.selectInChunk(1);
+		assertEquals("t_main.id IN (?, ?, ?, ?)", where.getConditions().toString());
+		assertEquals(Arrays.<Object>asList(5, 6, 7, 8), where.getConditionsValues());
+
+		// The last chunk is also padded.
+		where.selectInChunk(2);
+		assertEquals("t_main.id IN (?, ?)", where.getConditions().toString());
+		assertEquals(Arrays.<Object>asList(9, 10), where.getConditionsValues());
+	}
+
+	@Test
+	public void chunkSizeIsRoundedDownToPowerOfTwo() {
+		ModelConstants.IN_MAX_PARAMETERS = 6;
+		CriteriaWhere where = new CriteriaWhere();
+		where.addInCondition("t_main.id", Arrays.asList(1, 2, 3, 4, 5, 6));
+
+		assertEquals(2, where.getInChunkCount());
+		assertEquals(Arrays.<Object>asList(1, 2, 3, 4), where.getConditionsValues());
+		where.selectInChunk(1);
+		assertEquals(Arrays.<Object>asList(5, 6), where.getConditionsValues());
+	}
+
+	@Test
+	public void chunkPlaceholdersAreInsertedInsideTheIn() {
+		CriteriaWhere where = new CriteriaWhere();
+		where.addCondition("t_main.active", Filter.EQUAL_TO);
+		where.addConditionValue(true);
+		where.addLogicalOperator(Filter.AND);
+		where.addInCondition("t_main.id", Arrays.asList(1, 2, 3, 4, 5, 6));
+
+		assertEquals("t_main.active = ? AND t_main.id IN (?, ?, ?, ?)", where.getConditions().toString());
+		assertEquals(Arrays.<Object>asList(true, 1, 2, 3, 4), where.getConditionsValues());
+
+		where.selectInChunk(1);
+		assertEquals("t_main.active = ? AND t_main.id IN (?, ?)", where.getConditions().toString());
+		assertEquals(Arrays.<Object>asList(true, 5, 6), where.getConditionsValues());
+	}
+
+	@Test
+	public void chunkValuesAreSplicedBeforeFollowingConditions() {
+		CriteriaWhere where = new CriteriaWhere();
+		where.addCondition("t_main.active", Filter.EQUAL_TO);
+		where.addConditionValue(true);
+		where.addLogicalOperator(Filter.AND);
+		where.addInCondition("t_main.id", Arrays.asList(1, 2, 3, 4, 5, 6));
+		where.addLogicalOperator(Filter.AND);
+		where.addCondition("t_main.age", Filter.GREATER_THAN);
+		where.addConditionValue(18);
+		where.addLogicalOperator(Filter.AND);
+		where.addInCondition("t_main.company_id", Arrays.asList(7, 8, 9));
+
+		assertEquals("t_main.active = ? AND t_main.id IN (?, ?, ?, ?) AND t_main.age > ? AND t_main.company_id IN (?, ?, ?, ?)", where.getConditions().toString());
+		assertEquals(Arrays.<Object>asList(true, 1, 2, 3, 4, 18, 7, 8, 9, 9), where.getConditionsValues());
+
+		where.selectInChunk(1);
+		assertEquals("t_main.active = ? AND t_main.id IN (?, ?) AND t_main.age > ? AND t_main.company_id IN (?, ?, ?, ?)", where.getConditions().toString());
+		assertEquals(Arrays.<Object>asList(true, 5, 6, 18, 7, 8, 9, 9), where.getConditionsValues());
+	}
+
+	@Test
+	public void copyKeepsTheChunks() {
+		CriteriaWhere where = new CriteriaWhere();
+		where.addInCondition("t_main.id", Arrays.asList(1, 2, 3, 4, 5));
+		CriteriaWhere copy = new CriteriaWhere(where);
+
+		assertEquals(2, copy.getInChunkCount());
+		copy.selectInChunk(1);
+		assertEquals("t_main.id IN (?)", copy.getConditions().toString());
+		assertEquals(Arrays.<Object>asList(5), copy.getConditionsValues());
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void onlyOneInCanBeChunked() {
+		CriteriaWhere where = new CriteriaWhere();
+		where.addInCondition("t_main.id", Arrays.asList(1, 2, 3, 4, 5));
+		where.addLogicalOperator(Filter.AND);
+		where.addInCondition("t_main.company_id", Arrays.asList(1, 2, 3, 4, 5));
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void chunksAreNotCombinedWithOr() {
+		CriteriaWhere where = new CriteriaWhere();
+		where.addInCondition("t_main.id", Arrays.asList(1, 2, 3, 4, 5));
+		where.addLogicalOperator(Filter.OR);
+		where.addCondition("t_main.active", Filter.EQUAL_TO);
+		where.getInChunkCount();
+	}
+
+	@Test
+	public void invalidChunkIsRejected() {
+		CriteriaWhere where = new CriteriaWhere();
+		where.addInCondition("t_main.id", Arrays.asList(1, 2, 3, 4, 5));
+		try {
+			where.selectInChunk(2);
+			fail("Chunk should be rejected.");
+		}
+		catch(IndexOutOfBoundsException e) {
+			assertEquals("Invalid IN chunk: 2.", e.getMessage());
+		}
+	}
+}
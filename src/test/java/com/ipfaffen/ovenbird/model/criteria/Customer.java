@@ -0,0 +1,81 @@
+package com.ipfaffen.ovenbird.model.criteria;
+
+import com.ipfaffen.ovenbird.model.ModelEntity;
+import com.ipfaffen.ovenbird.model.annotation.Column;
+import com.ipfaffen.ovenbird.model.annotation.JoinColumn;
+import com.ipfaffen.ovenbird.model.annotation.Table;
+
+/**
+ * Test entity.
+ * 
+ * @author Isaias Pfaffenseller
+ */
+@Table(name = "customer")
+public class Customer extends ModelEntity<Customer> {
+
+	@Column(name = "id", isKey = true)
+	private Long id;
+
+	@Column(name = "full_name")
+	private String name;
+
+	@Column(name = "age")
+	private Integer age;
+
+	@Column(name = "active")
+	private Boolean active;
+
+	@Column(name = "company_id")
+	private Long companyId;
+
+	@JoinColumn(name = "companyId")
+	private Company company;
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public Integer getAge() {
+		return age;
+	}
+
+	public void setAge(Integer age) {
+		this.age = age;
+	}
+
+	public Boolean getActive() {
+		return active;
+	}
+
+	public void setActive(Boolean active) {
+		this.active = active;
+	}
+
+	public Long getCompanyId() {
+		return companyId;
+	}
+
+	public void setCompanyId(Long companyId) {
+		this.companyId = companyId;
+	}
+
+	public Company getCompany() {
+		return company;
+	}
+
+	public void setCompany(Company company) {
+		this.company = company;
+	}
+}
@@ -0,0 +1,89 @@
+package com.ipfaffen.ovenbird.model.criteria;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Date;
+
+import org.junit.Test;
+
+/**
+ * @author Isaias Pfaffenseller
+ */
+public class KeysetTokenTest {
+
+	@Test
+	public void roundTripEverySupportedType() {
+		Timestamp timestamp = new Timestamp(1500000000123L);
+		timestamp.setNanos(123456789);
+
+		Object[] values = new Object[] {null, Long.MIN_VALUE, Integer.MAX_VALUE, (short) -7, (byte) 3, 1.5d, -2.25f, Boolean.TRUE,
+			"Ação 'quoted' @name", new BigDecimal("12345678901234567890.000123"), new Date(1500000000000L), timestamp,
+			new java.sql.Date(1400000000000L)};
+
+		Object[] decoded = KeysetToken.decode(KeysetToken.encode(values));
+		assertArrayEquals(values, decoded);
+		for(int i = 0; i < values.length; i++) {
+			if(values[i] != null) {
+				assertEquals(values[i].getClass(), decoded[i].getClass());
+			}
+		}
+		assertEquals(123456789, ((Timestamp) decoded[11]).getNanos());
+	}
+
+	@Test
+	public void roundTripEmptyValues() {
+		assertEquals(0, KeysetToken.decode(KeysetToken.encode(new Object[0])).length);
+	}
+
+	@Test
+	public void roundTripNull() {
+		Object[] decoded = KeysetToken.decode(KeysetToken.encode(new Object[] {null}));
+		assertEquals(1, decoded.length);
+		assertNull(decoded[0]);
+	}
+
+	@Test
+	public void tokenIsLowercaseHex() {
+		String token = KeysetToken.encode(new Object[] {"name", 10L});
+		assertTrue(token.matches("[0-9a-f]+"));
+		assertEquals(0, token.length() % 2);
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void encodeRejectsUnsupportedType() {
+		KeysetToken.encode(new Object[] {new Object()});
+	}
+
+	@Test
+	public void decodeRejectsMalformedTokens() {
+		String token = KeysetToken.encode(new Object[] {"name", 10L});
+		assertInvalid("");
+		assertInvalid("0");
+		assertInvalid(token.substring(1));
+		assertInvalid("zz".concat(token.substring(2)));
+		assertInvalid(token.substring(0, token.length() - 2));
+		// One value of unknown type.
+		assertInvalid("0001ff");
+		// Negative number of values.
+		assertInvalid("ffff");
+	}
+
+	/**
+	 * @param token
+	 */
+	private void assertInvalid(String token) {
+		try {
+			KeysetToken.decode(token);
+			fail("Token should be rejected: ".concat(token));
+		}
+		catch(RuntimeException e) {
+			assertEquals("Invalid keyset token.", e.getMessage());
+		}
+	}
+}
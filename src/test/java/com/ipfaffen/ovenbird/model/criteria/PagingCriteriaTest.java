@@ -0,0 +1,186 @@
+package com.ipfaffen.ovenbird.model.criteria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * @author Isaias Pfaffenseller
+ */
+public class PagingCriteriaTest {
+
+	@Test
+	public void sameDirectionAscendentUsesRowComparison() {
+		PagingCriteria criteria = newKeysetCriteria();
+		criteria.addOrder("name");
+		criteria.setKeysetToken(criteria.buildKeysetToken(newCustomer(5L, "Ann", 40)));
+
+		assertEquals("(t_main.full_name, t_main.id) > (?, ?)", criteria.getConditions());
+		assertEquals(Arrays.<Object>asList("Ann", 5L, 11), criteria.getConditionsValues());
+	}
+
+	@Test
+	public void sameDirectionDescendentUsesRowComparison() {
+		PagingCriteria criteria = newKeysetCriteria();
+		criteria.addFilter("active", true);
+		criteria.addOrderDesc("name");
+		criteria.setKeysetToken(criteria.buildKeysetToken(newCustomer(5L, "Ann", 40)));
+
+		assertEquals("(t_main.active = ?) AND (t_main.full_name, t_main.id) < (?, ?)", criteria.getConditions());
+		assertEquals(Arrays.<Object>asList(true, "Ann", 5L, 11), criteria.getConditionsValues());
+	}
+
+	@Test
+	public void mixedDirectionsUseOrExpansion() {
+		PagingCriteria criteria = newKeysetCriteria();
+		criteria.addOrder("age");
+		criteria.addOrderDesc("id");
+		criteria.setKeysetToken(criteria.buildKeysetToken(newCustomer(3L, "Ann", 40)));
+
+		assertEquals("((t_main.age > ?) OR (t_main.age = ? AND t_main.id < ?))", criteria.getConditions());
+		assertEquals(Arrays.<Object>asList(40, 40, 3L, 11), criteria.getConditionsValues());
+	}
+
+	@Test
+	public void mixedDirectionsRepeatPreviousKeysInOrder() {
+		PagingCriteria criteria = newKeysetCriteria();
+		criteria.addFilter("active", true);
+		criteria.addOrder("age");
+		criteria.addOrderDesc("name");
+		criteria.setKeysetToken(criteria.buildKeysetToken(newCustomer(3L, "Ann", 40)));
+
+		assertEquals("(t_main.active = ?) AND ((t_main.age > ?) OR (t_main.age = ? AND t_main.full_name < ?) OR (t_main.age = ? AND t_main.full_name = ? AND t_main.id < ?))", criteria.getConditions());
+		assertEquals(Arrays.<Object>asList(true, 40, 40, "Ann", 40, "Ann", 3L, 11), criteria.getConditionsValues());
+	}
+
+	@Test
+	public void joinOrderIsReadThroughTheJoin() {
+		PagingCriteria criteria = newKeysetCriteria();
+		criteria.addOrderDesc("company.name");
+
+		Customer customer = newCustomer(7L, "Ann", 40);
+		Company company = new Company();
+		company.setName("Acme");
+		customer.setCompany(company);
+		criteria.setKeysetToken(criteria.buildKeysetToken(customer));
+
+		assertTrue(criteria.getConditions().matches("\\(t_\\w+\\.company_name, t_main\\.id\\) < \\(\\?, \\?\\)"));
+		assertEquals(Arrays.<Object>asList("Acme", 7L, 11), criteria.getConditionsValues());
+	}
+
+	@Test
+	public void implicitIdFollowsLastOrderDirection() {
+		PagingCriteria criteria = newKeysetCriteria();
+		criteria.addOrder("age");
+		criteria.addOrderDesc("name");
+		assertTrue(criteria.getOrders().trim().endsWith("t_main.id DESC"));
+
+		criteria = newKeysetCriteria();
+		criteria.addOrderDesc("age");
+		criteria.addOrder("name");
+		assertTrue(criteria.getOrders().trim().endsWith("t_main.id ASC"));
+	}
+
+	@Test
+	public void implicitIdIsAscendentWithoutOrders() {
+		PagingCriteria criteria = newKeysetCriteria();
+		assertTrue(criteria.hasOrder());
+		assertEquals("t_main.id ASC", criteria.getOrders().trim());
+
+		criteria.setKeysetToken(criteria.buildKeysetToken(newCustomer(9L, "Ann", 40)));
+		assertEquals("(t_main.id) > (?)", criteria.getConditions());
+		assertEquals(Arrays.<Object>asList(9L, 11), criteria.getConditionsValues());
+	}
+
+	@Test
+	public void orderedIdIsNotRepeated() {
+		PagingCriteria criteria = newKeysetCriteria();
+		criteria.addOrderDesc("id");
+		String orders = criteria.getOrders();
+		assertEquals(orders.indexOf("t_main.id"), orders.lastIndexOf("t_main.id"));
+
+		criteria.setKeysetToken(criteria.buildKeysetToken(newCustomer(9L, "Ann", 40)));
+		assertEquals("(t_main.id) < (?)", criteria.getConditions());
+		assertEquals(Arrays.<Object>asList(9L, 11), criteria.getConditionsValues());
+	}
+
+	@Test
+	public void firstKeysetPageHasNoSeekCondition() {
+		PagingCriteria criteria = newKeysetCriteria();
+		criteria.addOrder("name");
+		assertFalse(criteria.hasCondition());
+		assertEquals(Arrays.<Object>asList(11), criteria.getConditionsValues());
+
+		criteria.addFilter("active", true);
+		assertEquals("t_main.active = ?", criteria.getConditions());
+		assertEquals(Arrays.<Object>asList(true, 11), criteria.getConditionsValues());
+	}
+
+	@Test
+	public void offsetPagingBindsStartIndexAndPageSize() {
+		PagingCriteria criteria = new PagingCriteria(Customer.class, 10);
+		criteria.addFilter("active", true);
+		criteria.getPaging().setPage(3);
+		assertEquals(Arrays.<Object>asList(true, 20, 10), criteria.getConditionsValues());
+
+		criteria.setCountStrategy(PagingCriteria.Count.HAS_MORE);
+		assertEquals(Arrays.<Object>asList(true, 20, 11), criteria.getConditionsValues());
+	}
+
+	@Test
+	public void disabledPagingBindsOnlyTheConditions() {
+		PagingCriteria criteria = newKeysetCriteria();
+		criteria.addFilter("active", true);
+		criteria.addOrder("name");
+		criteria.setKeysetToken(criteria.buildKeysetToken(newCustomer(5L, "Ann", 40)));
+		criteria.disablePaging();
+
+		assertEquals("t_main.active = ?", criteria.getConditions());
+		assertEquals(Arrays.<Object>asList(true), criteria.getConditionsValues());
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void tokenWithOtherNumberOfKeysIsRejected() {
+		PagingCriteria criteria = newKeysetCriteria();
+		criteria.addOrder("name");
+		criteria.setKeysetToken(KeysetToken.encode(new Object[] {5L}));
+	}
+
+	@Test
+	public void emptyTokenRestartsPagination() {
+		PagingCriteria criteria = newKeysetCriteria();
+		criteria.setKeysetToken(criteria.buildKeysetToken(newCustomer(5L, "Ann", 40)));
+		assertTrue(criteria.hasKeysetToken());
+
+		criteria.setKeysetToken("");
+		assertFalse(criteria.hasKeysetToken());
+		assertFalse(criteria.hasCondition());
+	}
+
+	/**
+	 * @return
+	 */
+	private PagingCriteria newKeysetCriteria() {
+		PagingCriteria criteria = new PagingCriteria(Customer.class, 10);
+		criteria.enableKeyset();
+		return criteria;
+	}
+
+	/**
+	 * @param id
+	 * @param name
+	 * @param age
+	 * @return
+	 */
+	private Customer newCustomer(Long id, String name, Integer age) {
+		Customer customer = new Customer();
+		customer.setId(id);
+		customer.setName(name);
+		customer.setAge(age);
+		return customer;
+	}
+}